@@ -0,0 +1,48 @@
+package com.ccrm.benchmarks;
+
+import com.ccrm.core.DataStore;
+import com.ccrm.model.Course;
+import com.ccrm.model.Enrollment;
+import com.ccrm.model.Student;
+import com.ccrm.utils.DatasetGenerator;
+
+import java.util.List;
+
+/**
+ * Fills the DataStore with a reproducible dataset of a given number of
+ * enrollments from DatasetGenerator, with its default skew.
+ */
+public class BenchmarkData {
+
+    private static final long SEED = 42;
+
+    private final String[] studentIds;
+    private final String[] courseIds;
+    private final List<Enrollment> activeEnrollments;
+
+    private BenchmarkData(String[] studentIds, String[] courseIds, List<Enrollment> activeEnrollments) {
+        this.studentIds = studentIds;
+        this.courseIds = courseIds;
+        this.activeEnrollments = activeEnrollments;
+    }
+
+    /**
+     * Clears the DataStore and loads the dataset into it.
+     * @param dataStore The data store to fill
+     * @param enrollments Number of enrollments to create
+     * @return IDs of what was created, for picking benchmark arguments
+     */
+    public static BenchmarkData populate(DataStore dataStore, int enrollments) {
+        dataStore.clearAllData();
+        new DatasetGenerator(SEED, enrollments).populate(dataStore);
+        String[] studentIds = dataStore.streamStudents().map(Student::getId).sorted().toArray(String[]::new);
+        // Only active courses accept new enrollments
+        String[] courseIds = dataStore.streamCourses().filter(Course::isActive)
+                .map(Course::getCourseId).sorted().toArray(String[]::new);
+        return new BenchmarkData(studentIds, courseIds, dataStore.getActiveEnrollments());
+    }
+
+    public String[] getStudentIds() { return studentIds; }
+    public String[] getCourseIds() { return courseIds; }
+    public List<Enrollment> getActiveEnrollments() { return activeEnrollments; }
+}
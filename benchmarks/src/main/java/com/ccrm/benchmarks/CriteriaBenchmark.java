@@ -0,0 +1,148 @@
+package com.ccrm.benchmarks;
+
+import com.ccrm.core.DataStore;
+import com.ccrm.interfaces.Searchable.SearchCriteria;
+import com.ccrm.interfaces.Searchable.SearchOperator;
+import com.ccrm.model.Student;
+import com.ccrm.services.StudentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * StudentService.searchByCriteria against the per-row interpretation it
+ * replaced, for each operator. Setup checks both return the same rows before
+ * anything is measured. Criteria on indexed fields (name, email, active)
+ * include the index lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CriteriaBenchmark {
+
+    /**
+     * The measured criteria, one per operator, chosen to match part of the generated students.
+     */
+    public enum Case {
+        NAME_CONTAINS("name", "Son", SearchOperator.CONTAINS),
+        EMAIL_ENDS_WITH("email", "CAMPUS.EDU", SearchOperator.ENDS_WITH),
+        REGNO_STARTS_WITH("regNo", "reg10000", SearchOperator.STARTS_WITH),
+        ACTIVE_EQUALS("Active", "TRUE", SearchOperator.EQUALS),
+        GPA_GREATER_THAN("gpa", "3.5", SearchOperator.GREATER_THAN),
+        GPA_LESS_THAN("gpa", "1.25", SearchOperator.LESS_THAN);
+
+        private final SearchCriteria criteria;
+
+        Case(String field, String value, SearchOperator operator) {
+            this.criteria = new SearchCriteria(field, value, operator);
+        }
+    }
+
+    @Param({"1000", "100000", "1000000"})
+    public int enrollments;
+
+    @Param
+    public Case criteria;
+
+    private DataStore dataStore;
+    private StudentService studentService;
+    private SearchCriteria searchCriteria;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataStore = DataStore.getInstance();
+        BenchmarkData.populate(dataStore, enrollments);
+        studentService = new StudentService();
+        searchCriteria = criteria.criteria;
+
+        List<Student> expected = interpreted();
+        List<Student> actual = compiled();
+        // Indexed fields return the same rows, not necessarily in scan order
+        if (expected.size() != actual.size() || !new HashSet<>(expected).equals(new HashSet<>(actual))) {
+            throw new IllegalStateException("Results differ for " + criteria + ": interpreted "
+                    + expected.size() + " rows, compiled " + actual.size());
+        }
+    }
+
+    @Benchmark
+    public List<Student> compiled() {
+        return studentService.searchByCriteria(searchCriteria);
+    }
+
+    // The per-row interpretation searchByCriteria used before criteria were compiled
+
+    @Benchmark
+    public List<Student> interpreted() {
+        return dataStore.getAllStudents().stream()
+                .filter(student -> {
+                    String fieldValue = getFieldValue(student, searchCriteria.getField());
+                    return matchesCriteria(fieldValue, searchCriteria.getValue(), searchCriteria.getOperator());
+                })
+                .collect(Collectors.toList());
+    }
+
+    private static String getFieldValue(Student student, String field) {
+        switch (field.toLowerCase()) {
+            case "id":
+                return student.getId();
+            case "registrationnumber":
+            case "regno":
+                return student.getRegistrationNumber();
+            case "name":
+            case "fullname":
+                return student.getFullName();
+            case "email":
+                return student.getEmail();
+            case "active":
+                return String.valueOf(student.isActive());
+            case "gpa":
+                return String.valueOf(student.getCurrentGPA());
+            default:
+                return "";
+        }
+    }
+
+    private static boolean matchesCriteria(String fieldValue, String searchValue, SearchOperator operator) {
+        switch (operator) {
+            case EQUALS:
+                return fieldValue.equalsIgnoreCase(searchValue);
+            case CONTAINS:
+                return fieldValue.toLowerCase().contains(searchValue.toLowerCase());
+            case STARTS_WITH:
+                return fieldValue.toLowerCase().startsWith(searchValue.toLowerCase());
+            case ENDS_WITH:
+                return fieldValue.toLowerCase().endsWith(searchValue.toLowerCase());
+            case GREATER_THAN:
+                try {
+                    return Double.parseDouble(fieldValue) > Double.parseDouble(searchValue);
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            case LESS_THAN:
+                try {
+                    return Double.parseDouble(fieldValue) < Double.parseDouble(searchValue);
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            default:
+                return false;
+        }
+    }
+}
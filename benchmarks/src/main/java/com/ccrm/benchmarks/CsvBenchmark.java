@@ -0,0 +1,182 @@
+package com.ccrm.benchmarks;
+
+import com.ccrm.core.DataStore;
+import com.ccrm.enums.Grade;
+import com.ccrm.model.Enrollment;
+import com.ccrm.model.Student;
+import com.ccrm.utils.CSVUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * CSVUtils export and import of the student and enrollment files, which grow
+ * with the dataset. Imports read files exported once during setup, so the
+ * streaming, parallel and memory-mapped enrollment imports and the
+ * Files.readAllLines baseline they replaced all parse the same file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CsvBenchmark {
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    @Param({"1000", "100000", "1000000"})
+    public int enrollments;
+
+    private DataStore dataStore;
+    private Path directory;
+    private String studentsFile;
+    private String enrollmentsFile;
+    private String exportFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataStore = DataStore.getInstance();
+        BenchmarkData.populate(dataStore, enrollments);
+        directory = Files.createTempDirectory("ccrm-csv-bench");
+        studentsFile = directory.resolve("students.csv").toString();
+        enrollmentsFile = directory.resolve("enrollments.csv").toString();
+        exportFile = directory.resolve("export.csv").toString();
+        CSVUtils.exportStudentsToCSV(dataStore.streamStudents().iterator(), studentsFile);
+        CSVUtils.exportEnrollmentsToCSV(dataStore.streamEnrollments().iterator(), enrollmentsFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void exportStudents() throws IOException {
+        CSVUtils.exportStudentsToCSV(dataStore.streamStudents().iterator(), exportFile);
+    }
+
+    @Benchmark
+    public void exportEnrollments() throws IOException {
+        CSVUtils.exportEnrollmentsToCSV(dataStore.streamEnrollments().iterator(), exportFile);
+    }
+
+    @Benchmark
+    public int importStudents(Blackhole blackhole) throws IOException {
+        return CSVUtils.importStudentsFromCSV(studentsFile, (Student student) -> blackhole.consume(student));
+    }
+
+    @Benchmark
+    public int importEnrollments(Blackhole blackhole) throws IOException {
+        return CSVUtils.importEnrollmentsFromCSV(enrollmentsFile, (Enrollment enrollment) -> blackhole.consume(enrollment));
+    }
+
+    @Benchmark
+    public int importEnrollmentsParallel(Blackhole blackhole) throws IOException {
+        return CSVUtils.importEnrollmentsFromCSVParallel(enrollmentsFile, blackhole::consume);
+    }
+
+    @Benchmark
+    public int importEnrollmentsMapped(Blackhole blackhole) throws IOException {
+        return CSVUtils.importEnrollmentsFromCSVMapped(enrollmentsFile, (Enrollment enrollment) -> blackhole.consume(enrollment));
+    }
+
+    /**
+     * The enrollment import as it was before imports streamed: the whole file read
+     * with Files.readAllLines, then each line split into new Strings.
+     */
+    @Benchmark
+    public int importEnrollmentsReadAllLines(Blackhole blackhole) throws IOException {
+        List<String> lines = Files.readAllLines(Paths.get(enrollmentsFile));
+        int count = 0;
+
+        // Skip header line
+        for (int i = 1; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty()) continue;
+
+            String[] fields = parseCSVLine(line);
+            if (fields.length >= 6) {
+                Enrollment enrollment = new Enrollment(fields[0], fields[1], fields[2]);
+                if (!fields[3].isEmpty()) {
+                    enrollment.setEnrollmentDate(LocalDate.parse(fields[3], DATE_FORMATTER));
+                }
+                if (!fields[4].isEmpty()) {
+                    enrollment.setCompletionDate(LocalDate.parse(fields[4], DATE_FORMATTER));
+                }
+                if (!fields[5].isEmpty()) {
+                    enrollment.setNumericGrade(Double.parseDouble(fields[5]));
+                }
+                if (fields.length > 6 && !fields[6].isEmpty()) {
+                    enrollment.setLetterGrade(Grade.valueOf(fields[6]));
+                }
+                if (fields.length > 7) {
+                    enrollment.setCompleted(Boolean.parseBoolean(fields[7]));
+                }
+                if (fields.length > 8) {
+                    enrollment.setActive(Boolean.parseBoolean(fields[8]));
+                }
+                blackhole.consume(enrollment);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static String[] parseCSVLine(String line) {
+        List<String> fields = new ArrayList<>();
+        boolean inQuotes = false;
+        StringBuilder currentField = new StringBuilder();
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+
+            if (c == '"') {
+                if (inQuotes && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    // Escaped quote
+                    currentField.append('"');
+                    i++; // Skip next quote
+                } else {
+                    // Toggle quote state
+                    inQuotes = !inQuotes;
+                }
+            } else if (c == ',' && !inQuotes) {
+                // Field separator
+                fields.add(currentField.toString());
+                currentField = new StringBuilder();
+            } else {
+                currentField.append(c);
+            }
+        }
+
+        // Add the last field
+        fields.add(currentField.toString());
+
+        return fields.toArray(new String[0]);
+    }
+}
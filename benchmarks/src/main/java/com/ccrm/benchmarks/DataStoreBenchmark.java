@@ -0,0 +1,69 @@
+package com.ccrm.benchmarks;
+
+import com.ccrm.core.DataStore;
+import com.ccrm.model.Enrollment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-student lookups on the DataStore indexes and running totals.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class DataStoreBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int enrollments;
+
+    private DataStore dataStore;
+    private String[] studentIds;
+    private String[] courseIds;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataStore = DataStore.getInstance();
+        BenchmarkData data = BenchmarkData.populate(dataStore, enrollments);
+        studentIds = data.getStudentIds();
+        courseIds = data.getCourseIds();
+    }
+
+    private int nextIndex(int bound) {
+        // Prime stride so successive calls touch different records
+        next = (next + 7919) & Integer.MAX_VALUE;
+        return next % bound;
+    }
+
+    @Benchmark
+    public List<Enrollment> getEnrollmentsByStudent() {
+        return dataStore.getEnrollmentsByStudent(studentIds[nextIndex(studentIds.length)]);
+    }
+
+    @Benchmark
+    public double calculateStudentGPA() {
+        return dataStore.calculateStudentGPA(studentIds[nextIndex(studentIds.length)]);
+    }
+
+    @Benchmark
+    public boolean canEnrollStudent() {
+        return dataStore.canEnrollStudent(studentIds[nextIndex(studentIds.length)],
+                                          courseIds[nextIndex(courseIds.length)]);
+    }
+}
@@ -0,0 +1,114 @@
+package com.ccrm.benchmarks;
+
+import com.ccrm.core.DataStore;
+import com.ccrm.model.Enrollment;
+import com.ccrm.model.Student;
+import com.ccrm.services.EnrollmentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enrolling and grading through EnrollmentService.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class EnrollmentServiceBenchmark {
+
+    // Enough per invocation that the un-enrolling between invocations is not what gets timed
+    private static final int ENROLLMENTS_PER_INVOCATION = 1000;
+
+    @Param({"1000", "100000", "1000000"})
+    public int enrollments;
+
+    private DataStore dataStore;
+    private EnrollmentService enrollmentService;
+    private String[] courseIds;
+    private List<Enrollment> activeEnrollments;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataStore = DataStore.getInstance();
+        BenchmarkData data = BenchmarkData.populate(dataStore, enrollments);
+        courseIds = data.getCourseIds();
+        activeEnrollments = data.getActiveEnrollments();
+        enrollmentService = new EnrollmentService();
+    }
+
+    private int nextIndex(int bound) {
+        next = (next + 7919) & Integer.MAX_VALUE;
+        return next % bound;
+    }
+
+    /**
+     * Spare students that enrollStudent enrolls, one course each per invocation,
+     * and that are un-enrolled again after every invocation so they never reach
+     * the credit limit. Kept apart so recordGrade runs without the teardown.
+     */
+    @State(Scope.Benchmark)
+    public static class SpareStudents {
+        private String[] studentIds;
+        private Enrollment[] enrolled;
+
+        @Setup(Level.Trial)
+        public void setUp(EnrollmentServiceBenchmark benchmark) {
+            studentIds = new String[ENROLLMENTS_PER_INVOCATION];
+            enrolled = new Enrollment[ENROLLMENTS_PER_INVOCATION];
+            for (int i = 0; i < studentIds.length; i++) {
+                studentIds[i] = "BENCH-SPARE-" + i;
+                benchmark.dataStore.addStudent(new Student(studentIds[i], "REG-SPARE-" + i, "Spare Student " + i,
+                                                           "spare" + i + "@example.edu"));
+            }
+        }
+
+        @TearDown(Level.Invocation)
+        public void removeEnrollments(EnrollmentServiceBenchmark benchmark) {
+            DataStore dataStore = benchmark.dataStore;
+            for (int i = 0; i < enrolled.length; i++) {
+                if (enrolled[i] != null) {
+                    dataStore.removeEnrollment(enrolled[i].getEnrollmentId());
+                    Student spare = dataStore.getStudent(studentIds[i]);
+                    spare.unenrollFromCourse(enrolled[i].getCourseId());
+                    dataStore.addStudent(spare);
+                    enrolled[i] = null;
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENROLLMENTS_PER_INVOCATION)
+    public Enrollment[] enrollStudent(SpareStudents spares) throws Exception {
+        for (int i = 0; i < ENROLLMENTS_PER_INVOCATION; i++) {
+            spares.enrolled[i] = enrollmentService.enrollStudent(spares.studentIds[i],
+                                                                 courseIds[nextIndex(courseIds.length)]);
+        }
+        return spares.enrolled;
+    }
+
+    @Benchmark
+    public void recordGrade() throws Exception {
+        // Grading leaves the enrollment active, so the same ones can be graded again
+        Enrollment enrollment = activeEnrollments.get(nextIndex(activeEnrollments.size()));
+        enrollmentService.recordGrade(enrollment.getStudentId(), enrollment.getCourseId(), 40 + (next % 61));
+    }
+}
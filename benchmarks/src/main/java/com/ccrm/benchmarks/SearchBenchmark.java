@@ -0,0 +1,96 @@
+package com.ccrm.benchmarks;
+
+import com.ccrm.core.DataStore;
+import com.ccrm.interfaces.Searchable.SearchCriteria;
+import com.ccrm.interfaces.Searchable.SearchOperator;
+import com.ccrm.model.Course;
+import com.ccrm.model.Enrollment;
+import com.ccrm.model.Student;
+import com.ccrm.services.CourseService;
+import com.ccrm.services.EnrollmentService;
+import com.ccrm.services.StudentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * searchByCriteria on each service, once with criteria an index can answer and
+ * once with criteria that need a scan. CriteriaBenchmark compares compiled
+ * criteria with the per-row interpretation they replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SearchBenchmark {
+
+    private static final SearchCriteria STUDENT_INDEXED = new SearchCriteria("name", "Okafor", SearchOperator.CONTAINS);
+    private static final SearchCriteria STUDENT_SCAN = new SearchCriteria("name", "or", SearchOperator.CONTAINS);
+    private static final SearchCriteria COURSE_INDEXED = new SearchCriteria("department", "MATH", SearchOperator.EQUALS);
+    private static final SearchCriteria COURSE_SCAN = new SearchCriteria("credits", "2", SearchOperator.GREATER_THAN);
+    private static final SearchCriteria ENROLLMENT_SCAN = new SearchCriteria("numericgrade", "90", SearchOperator.GREATER_THAN);
+
+    @Param({"1000", "100000", "1000000"})
+    public int enrollments;
+
+    private DataStore dataStore;
+    private StudentService studentService;
+    private CourseService courseService;
+    private EnrollmentService enrollmentService;
+    private SearchCriteria enrollmentIndexed;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataStore = DataStore.getInstance();
+        BenchmarkData data = BenchmarkData.populate(dataStore, enrollments);
+        studentService = new StudentService();
+        courseService = new CourseService();
+        enrollmentService = new EnrollmentService();
+        String[] studentIds = data.getStudentIds();
+        enrollmentIndexed = new SearchCriteria("studentid", studentIds[studentIds.length / 2], SearchOperator.EQUALS);
+    }
+
+    @Benchmark
+    public List<Student> studentsIndexed() {
+        return studentService.searchByCriteria(STUDENT_INDEXED);
+    }
+
+    @Benchmark
+    public List<Student> studentsScan() {
+        return studentService.searchByCriteria(STUDENT_SCAN);
+    }
+
+    @Benchmark
+    public List<Course> coursesIndexed() {
+        return courseService.searchByCriteria(COURSE_INDEXED);
+    }
+
+    @Benchmark
+    public List<Course> coursesScan() {
+        return courseService.searchByCriteria(COURSE_SCAN);
+    }
+
+    @Benchmark
+    public List<Enrollment> enrollmentsIndexed() {
+        return enrollmentService.searchByCriteria(enrollmentIndexed);
+    }
+
+    @Benchmark
+    public List<Enrollment> enrollmentsScan() {
+        return enrollmentService.searchByCriteria(ENROLLMENT_SCAN);
+    }
+}
@@ -17,12 +17,14 @@ public class CourseBuilder {
     private Semester semester;
     private Department department;
     private String description;
+    private int capacity;
 
     public CourseBuilder() {
         // Initialize with default values
         this.creditHours = 3;
         this.semester = Semester.FALL;
         this.department = Department.COMPUTER_SCIENCE;
+        this.capacity = Course.UNLIMITED_CAPACITY;
     }
 
     public CourseBuilder courseId(String courseId) {
@@ -65,12 +67,18 @@ public class CourseBuilder {
         return this;
     }
 
+    public CourseBuilder capacity(int capacity) {
+        this.capacity = capacity;
+        return this;
+    }
+
     public Course build() {
         validateRequiredFields();
         
         Course course = new Course(courseId, courseCode, title, creditHours, 
                                  instructorId, semester, department);
         course.setDescription(description);
+        course.setCapacity(capacity);
         
         return course;
     }
@@ -91,5 +99,8 @@ public class CourseBuilder {
         if (instructorId == null || instructorId.trim().isEmpty()) {
             throw new IllegalArgumentException("Instructor ID is required");
         }
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative");
+        }
     }
 }
@@ -1,11 +1,17 @@
 
 package com.ccrm.cli;
 
+import com.ccrm.core.Checkpointer;
+import com.ccrm.core.CourseEnrollmentCounts;
 import com.ccrm.core.DataStore;
+import com.ccrm.core.LatencyHistogram;
+import com.ccrm.core.MetricsRegistry;
+import com.ccrm.core.WriteAheadLog;
 import com.ccrm.model.*;
 import com.ccrm.enums.*;
 import com.ccrm.exceptions.*;
 import com.ccrm.builders.*;
+import com.ccrm.services.EnrollmentService;
 import com.ccrm.utils.*;
 import java.io.IOException;
 import java.util.*;
@@ -14,8 +20,13 @@ import java.util.stream.Collectors;
 public class CampusCourseRecordsManager {
     private static final Scanner scanner = new Scanner(System.in);
     private static final DataStore dataStore = DataStore.getInstance();
+    private static final EnrollmentService enrollmentService = new EnrollmentService();
     private static final String DATA_DIR = "data";
     private static final String BACKUP_DIR = "backups";
+    private static final String SNAPSHOT_FILE = DATA_DIR + "/ccrm.snapshot";
+    private static final String WAL_DIR = DATA_DIR + "/wal";
+    private static WriteAheadLog writeAheadLog;
+    private static Checkpointer checkpointer;
 
     public static void main(String[] args) {
         System.out.println("=== Campus Course & Records Manager (CCRM) ===");
@@ -26,8 +37,15 @@ public class CampusCourseRecordsManager {
             FileUtils.createDirectoryIfNotExists(DATA_DIR);
             FileUtils.createDirectoryIfNotExists(BACKUP_DIR);
             
-            // Load existing data
-            loadInitialData();
+            // Load existing data, then replay and continue the change log
+            long snapshotSequenceNumber = loadInitialData();
+            writeAheadLog = new WriteAheadLog(dataStore, WAL_DIR);
+            int replayed = writeAheadLog.recover(snapshotSequenceNumber);
+            if (replayed > 0) {
+                System.out.println("Replayed " + replayed + " logged changes.");
+            }
+            checkpointer = new Checkpointer(dataStore, writeAheadLog, SNAPSHOT_FILE);
+            checkpointer.start();
             
           
             boolean running = true;
@@ -72,6 +90,20 @@ public class CampusCourseRecordsManager {
             e.printStackTrace();
         } finally {
             scanner.close();
+            closeWriteAheadLog();
+        }
+    }
+
+    private static void closeWriteAheadLog() {
+        if (checkpointer != null) {
+            checkpointer.close();
+        }
+        if (writeAheadLog != null) {
+            try {
+                writeAheadLog.close();
+            } catch (IOException e) {
+                System.err.println("Could not flush change log: " + e.getMessage());
+            }
         }
     }
 
@@ -227,6 +259,7 @@ public class CampusCourseRecordsManager {
             System.out.println("4. Import Students from CSV");
             System.out.println("5. Import Courses from CSV");
             System.out.println("6. Import Enrollments from CSV");
+            System.out.println("7. Save Data Snapshot");
             System.out.println("0. Back to Main Menu");
             
             int choice = getIntInput("Enter your choice: ");
@@ -250,6 +283,9 @@ public class CampusCourseRecordsManager {
                 case 6:
                     importEnrollmentsFromCSV();
                     break;
+                case 7:
+                    saveDataSnapshot();
+                    break;
                 case 0:
                     backToMain = true;
                     break;
@@ -267,6 +303,7 @@ public class CampusCourseRecordsManager {
             System.out.println("2. GPA Distribution Report");
             System.out.println("3. Course Enrollment Statistics");
             System.out.println("4. Department Statistics");
+            System.out.println("5. Performance Metrics");
             System.out.println("0. Back to Main Menu");
             
             int choice = getIntInput("Enter your choice: ");
@@ -284,6 +321,9 @@ public class CampusCourseRecordsManager {
                 case 4:
                     displayDepartmentStats();
                     break;
+                case 5:
+                    displayPerformanceMetrics();
+                    break;
                 case 0:
                     backToMain = true;
                     break;
@@ -301,6 +341,10 @@ public class CampusCourseRecordsManager {
             System.out.println("2. List Backup Files");
             System.out.println("3. Calculate Backup Size");
             System.out.println("4. Cleanup Old Backups");
+            System.out.println("5. Create Incremental Backup");
+            System.out.println("6. Restore Incremental Backup");
+            System.out.println("7. Create Compressed Backup");
+            System.out.println("8. Create Snapshot Backup (hard links)");
             System.out.println("0. Back to Main Menu");
             
             int choice = getIntInput("Enter your choice: ");
@@ -318,6 +362,18 @@ public class CampusCourseRecordsManager {
                 case 4:
                     cleanupOldBackups();
                     break;
+                case 5:
+                    createIncrementalBackup();
+                    break;
+                case 6:
+                    restoreIncrementalBackup();
+                    break;
+                case 7:
+                    createCompressedBackup();
+                    break;
+                case 8:
+                    createLinkedBackup();
+                    break;
                 case 0:
                     backToMain = true;
                     break;
@@ -380,6 +436,7 @@ public class CampusCourseRecordsManager {
         String newEmail = getStringInput("Email [" + student.getEmail() + "]: ");
         if (!newEmail.isEmpty()) student.setEmail(newEmail);
         
+        dataStore.addStudent(student); // Save changes
         System.out.println("Student updated successfully!");
     }
 
@@ -390,6 +447,7 @@ public class CampusCourseRecordsManager {
             System.out.println("Student not found.");
         } else {
             student.setActive(false);
+            dataStore.addStudent(student); // Save changes
             System.out.println("Student deactivated successfully!");
         }
     }
@@ -434,6 +492,7 @@ public class CampusCourseRecordsManager {
         }
         int deptChoice = getIntInput("Select Department: ") - 1;
         Department department = Department.values()[deptChoice];
+        int capacity = getIntInput("Enter Capacity (0 for unlimited): ");
         
         Course course = new CourseBuilder()
                 .courseId(courseId)
@@ -443,6 +502,7 @@ public class CampusCourseRecordsManager {
                 .instructorId(instructorId)
                 .semester(semester)
                 .department(department)
+                .capacity(capacity)
                 .build();
         
         dataStore.addCourse(course);
@@ -488,6 +548,7 @@ public class CampusCourseRecordsManager {
         String newDescription = getStringInput("Description [" + course.getDescription() + "]: ");
         if (!newDescription.isEmpty()) course.setDescription(newDescription);
         
+        dataStore.addCourse(course); // Save changes
         System.out.println("Course updated successfully!");
     }
 
@@ -498,6 +559,7 @@ public class CampusCourseRecordsManager {
             System.out.println("Course not found.");
         } else {
             course.setActive(false);
+            dataStore.addCourse(course); // Save changes
             System.out.println("Course deactivated successfully!");
         }
     }
@@ -541,18 +603,12 @@ public class CampusCourseRecordsManager {
         String studentId = getStringInput("Enter Student ID: ");
         String courseId = getStringInput("Enter Course ID: ");
         
-        if (dataStore.canEnrollStudent(studentId, courseId)) {
-            String enrollmentId = UUID.randomUUID().toString();
-            Enrollment enrollment = new Enrollment(enrollmentId, studentId, courseId);
-            dataStore.addEnrollment(enrollment);
-            
-            // Update student's enrolled courses
-            Student student = dataStore.getStudent(studentId);
-            student.enrollInCourse(courseId);
-            
+        try {
+            enrollmentService.enrollStudent(studentId, courseId);
             System.out.println("Student enrolled successfully!");
-        } else {
-            System.out.println("Cannot enroll student. Check if student/course exists and credit limit.");
+        } catch (StudentNotFoundException | CourseNotFoundException
+                 | MaxCreditLimitExceededException | IllegalStateException e) {
+            System.out.println("Cannot enroll student: " + e.getMessage());
         }
     }
 
@@ -560,18 +616,15 @@ public class CampusCourseRecordsManager {
         String studentId = getStringInput("Enter Student ID: ");
         String courseId = getStringInput("Enter Course ID: ");
         
-        List<Enrollment> enrollments = dataStore.getEnrollmentsByStudent(studentId);
-        Enrollment enrollment = enrollments.stream()
-                .filter(e -> e.getCourseId().equals(courseId) && e.isActive())
-                .findFirst()
-                .orElse(null);
+        Enrollment enrollment = dataStore.getActiveEnrollment(studentId, courseId);
         
         if (enrollment == null) {
             System.out.println("Active enrollment not found.");
         } else {
-            enrollment.withdraw();
+            dataStore.withdrawEnrollment(enrollment);
             Student student = dataStore.getStudent(studentId);
             student.unenrollFromCourse(courseId);
+            dataStore.addStudent(student); // Save changes
             System.out.println("Student unenrolled successfully!");
         }
     }
@@ -580,11 +633,7 @@ public class CampusCourseRecordsManager {
         String studentId = getStringInput("Enter Student ID: ");
         String courseId = getStringInput("Enter Course ID: ");
         
-        List<Enrollment> enrollments = dataStore.getEnrollmentsByStudent(studentId);
-        Enrollment enrollment = enrollments.stream()
-                .filter(e -> e.getCourseId().equals(courseId) && e.isActive())
-                .findFirst()
-                .orElse(null);
+        Enrollment enrollment = dataStore.getActiveEnrollment(studentId, courseId);
         
         if (enrollment == null) {
             System.out.println("Active enrollment not found.");
@@ -597,12 +646,13 @@ public class CampusCourseRecordsManager {
                 throw new InvalidGradeException(grade);
             }
             
-            enrollment.recordGrade(grade);
+            dataStore.recordEnrollmentGrade(enrollment, grade);
             
             // Update student's GPA
             Student student = dataStore.getStudent(studentId);
             double newGPA = dataStore.calculateStudentGPA(studentId);
             student.setCurrentGPA(newGPA);
+            dataStore.addStudent(student); // Save changes
             
             System.out.println("Grade recorded successfully!");
             System.out.println("Letter Grade: " + enrollment.getLetterGrade().getLetterGrade());
@@ -648,7 +698,7 @@ public class CampusCourseRecordsManager {
     private static void exportStudentsToCSV() {
         String filePath = DATA_DIR + "/students.csv";
         try {
-            CSVUtils.exportStudentsToCSV(dataStore.getAllStudents(), filePath);
+            CSVUtils.exportStudentsToCSV(dataStore.streamStudents().iterator(), filePath);
             System.out.println("Students exported to " + filePath);
         } catch (Exception e) {
             System.out.println("Export failed: " + e.getMessage());
@@ -658,7 +708,7 @@ public class CampusCourseRecordsManager {
     private static void exportCoursesToCSV() {
         String filePath = DATA_DIR + "/courses.csv";
         try {
-            CSVUtils.exportCoursesToCSV(dataStore.getAllCourses(), filePath);
+            CSVUtils.exportCoursesToCSV(dataStore.streamCourses().iterator(), filePath);
             System.out.println("Courses exported to " + filePath);
         } catch (Exception e) {
             System.out.println("Export failed: " + e.getMessage());
@@ -668,7 +718,7 @@ public class CampusCourseRecordsManager {
     private static void exportEnrollmentsToCSV() {
         String filePath = DATA_DIR + "/enrollments.csv";
         try {
-            CSVUtils.exportEnrollmentsToCSV(dataStore.getAllEnrollments(), filePath);
+            CSVUtils.exportEnrollmentsToCSV(dataStore.streamEnrollments().iterator(), filePath);
             System.out.println("Enrollments exported to " + filePath);
         } catch (IOException e) {
             System.out.println("Export failed: " + e.getMessage());
@@ -678,11 +728,9 @@ public class CampusCourseRecordsManager {
     private static void importStudentsFromCSV() {
         String filePath = getStringInput("Enter CSV file path: ");
         try {
-            List<Student> students = CSVUtils.importStudentsFromCSV(filePath);
-            for (Student student : students) {
-                dataStore.addStudent(student);
-            }
-            System.out.println("Imported " + students.size() + " students successfully!");
+            // One flush of the change log for the whole file instead of one per row
+            int count = writeAheadLog.batch(() -> CSVUtils.importStudentsFromCSV(filePath, dataStore::addStudent));
+            System.out.println("Imported " + count + " students successfully!");
         } catch (IOException e) {
             System.out.println("Import failed: " + e.getMessage());
         }
@@ -691,11 +739,9 @@ public class CampusCourseRecordsManager {
     private static void importCoursesFromCSV() {
         String filePath = getStringInput("Enter CSV file path: ");
         try {
-            List<Course> courses = CSVUtils.importCoursesFromCSV(filePath);
-            for (Course course : courses) {
-                dataStore.addCourse(course);
-            }
-            System.out.println("Imported " + courses.size() + " courses successfully!");
+            // One flush of the change log for the whole file instead of one per row
+            int count = writeAheadLog.batch(() -> CSVUtils.importCoursesFromCSV(filePath, dataStore::addCourse));
+            System.out.println("Imported " + count + " courses successfully!");
         } catch (IOException e) {
             System.out.println("Import failed: " + e.getMessage());
         }
@@ -704,16 +750,25 @@ public class CampusCourseRecordsManager {
     private static void importEnrollmentsFromCSV() {
         String filePath = getStringInput("Enter CSV file path: ");
         try {
-            List<Enrollment> enrollments = CSVUtils.importEnrollmentsFromCSV(filePath);
-            for (Enrollment enrollment : enrollments) {
-                dataStore.addEnrollment(enrollment);
-            }
-            System.out.println("Imported " + enrollments.size() + " enrollments successfully!");
+            // One flush of the change log for the whole file instead of one per row
+            int count = writeAheadLog.batch(() -> CSVUtils.importEnrollmentsFromCSV(filePath, dataStore::addEnrollment));
+            System.out.println("Imported " + count + " enrollments successfully!");
         } catch (IOException e) {
             System.out.println("Import failed: " + e.getMessage());
         }
     }
 
+    private static void saveDataSnapshot() {
+        try {
+            long start = System.currentTimeMillis();
+            SnapshotUtils.SnapshotInfo info = checkpointer.checkpoint();
+            System.out.println("Saved snapshot (" + info + ") to " + SNAPSHOT_FILE
+                    + " in " + (System.currentTimeMillis() - start) + " ms");
+        } catch (IOException e) {
+            System.out.println("Snapshot failed: " + e.getMessage());
+        }
+    }
+
     // System Reports Methods
     private static void displaySystemStatistics() {
         System.out.println("\n=== SYSTEM STATISTICS ===");
@@ -750,9 +805,10 @@ public class CampusCourseRecordsManager {
         List<Course> courses = dataStore.getAllCourses();
         
         courses.forEach(course -> {
-            int enrollmentCount = dataStore.getEnrollmentsByCourse(course.getCourseId()).size();
+            CourseEnrollmentCounts counts = dataStore.getCourseEnrollmentCounts(course.getCourseId());
             System.out.println(course.getCourseCode() + " - " + course.getTitle() + 
-                             ": " + enrollmentCount + " students");
+                             ": " + counts.getTotal() + " students (" + counts.getActive() + " active, "
+                             + counts.getCompleted() + " completed, " + counts.getWithdrawn() + " withdrawn)");
         });
     }
 
@@ -768,6 +824,37 @@ public class CampusCourseRecordsManager {
             System.out.println(dept + ": " + count + " courses"));
     }
 
+    private static void displayPerformanceMetrics() {
+        System.out.println("\n=== PERFORMANCE METRICS ===");
+        List<LatencyHistogram.Snapshot> snapshots = MetricsRegistry.getInstance().snapshot();
+        if (snapshots.isEmpty()) {
+            System.out.println("No operations recorded yet.");
+            return;
+        }
+        System.out.printf("%-34s %9s %10s %10s %10s %10s %10s%n",
+                          "Operation", "Calls", "p50", "p99", "p99.9", "Max", "Calls/s");
+        for (LatencyHistogram.Snapshot snapshot : snapshots) {
+            System.out.printf("%-34s %9d %10s %10s %10s %10s %10.2f%n",
+                              snapshot.getName(), snapshot.getCount(),
+                              formatNanos(snapshot.getPercentileNanos(50)),
+                              formatNanos(snapshot.getPercentileNanos(99)),
+                              formatNanos(snapshot.getPercentileNanos(99.9)),
+                              formatNanos(snapshot.getMaxNanos()),
+                              snapshot.getThroughput());
+        }
+    }
+
+    private static String formatNanos(long nanos) {
+        if (nanos < 1_000) {
+            return nanos + " ns";
+        } else if (nanos < 1_000_000) {
+            return String.format("%.1f us", nanos / 1e3);
+        } else if (nanos < 1_000_000_000) {
+            return String.format("%.1f ms", nanos / 1e6);
+        }
+        return String.format("%.2f s", nanos / 1e9);
+    }
+
     // Backup Operations Methods
     private static void createBackup() {
         try {
@@ -780,12 +867,12 @@ public class CampusCourseRecordsManager {
 
     private static void listBackupFiles() {
         try {
-            List<String> files = FileUtils.listFilesRecursively(BACKUP_DIR);
+            List<BackupCatalog.Entry> backups = BackupUtils.listBackups(BACKUP_DIR);
             System.out.println("\n=== BACKUP FILES ===");
-            if (files.isEmpty()) {
+            if (backups.isEmpty()) {
                 System.out.println("No backup files found.");
             } else {
-                files.forEach(System.out::println);
+                backups.forEach(System.out::println);
             }
         } catch (IOException e) {
             System.out.println("Failed to list backup files: " + e.getMessage());
@@ -794,9 +881,14 @@ public class CampusCourseRecordsManager {
 
     private static void calculateBackupSize() {
         try {
-            BackupUtils.FileCountInfo info = BackupUtils.countFilesRecursively(BACKUP_DIR);
+            List<BackupCatalog.Entry> backups = BackupUtils.listBackups(BACKUP_DIR);
+            int fileCount = backups.stream().mapToInt(BackupCatalog.Entry::getFileCount).sum();
+            long totalSize = backups.stream().mapToLong(BackupCatalog.Entry::getTotalSize).sum();
+            long storedSize = backups.stream().mapToLong(BackupCatalog.Entry::getStoredSize).sum();
             System.out.println("\n=== BACKUP SIZE INFORMATION ===");
-            System.out.println(info);
+            System.out.println(String.format("Backups: %d, Files: %d, Data Size: %s, Stored Size: %s",
+                    backups.size(), fileCount, FileUtils.formatFileSize(totalSize),
+                    FileUtils.formatFileSize(storedSize)));
         } catch (IOException e) {
             System.out.println("Failed to calculate backup size: " + e.getMessage());
         }
@@ -806,36 +898,126 @@ public class CampusCourseRecordsManager {
         int days = getIntInput("Enter maximum age in days for backups to keep: ");
         try {
             int deletedCount = BackupUtils.cleanupOldBackups(BACKUP_DIR, days);
-            System.out.println("Cleaned up " + deletedCount + " old backup directories.");
+            System.out.println("Cleaned up " + deletedCount + " old backups.");
         } catch (IOException e) {
             System.out.println("Cleanup failed: " + e.getMessage());
         }
     }
 
+    private static void createIncrementalBackup() {
+        try {
+            BackupUtils.IncrementalBackupInfo info = BackupUtils.createIncrementalBackup(DATA_DIR, BACKUP_DIR);
+            System.out.println("Incremental backup created: " + info.getManifestPath());
+            System.out.println(info);
+        } catch (IOException e) {
+            System.out.println("Backup creation failed: " + e.getMessage());
+        }
+    }
+
+    private static void createCompressedBackup() {
+        try {
+            BackupUtils.CompressedBackupInfo info = BackupUtils.createCompressedBackup(DATA_DIR, BACKUP_DIR);
+            System.out.println("Compressed backup created at: " + info.getBackupDir());
+            System.out.println(info);
+        } catch (IOException e) {
+            System.out.println("Backup creation failed: " + e.getMessage());
+        }
+    }
+
+    private static void createLinkedBackup() {
+        try {
+            BackupUtils.LinkedBackupInfo info = BackupUtils.createLinkedBackup(DATA_DIR, BACKUP_DIR);
+            System.out.println("Snapshot backup created at: " + info.getBackupDir());
+            System.out.println(info);
+        } catch (IOException e) {
+            System.out.println("Backup creation failed: " + e.getMessage());
+        }
+    }
+
+    private static void restoreIncrementalBackup() {
+        try {
+            List<String> manifests = BackupUtils.listIncrementalBackups(BACKUP_DIR);
+            if (manifests.isEmpty()) {
+                System.out.println("No incremental backups found.");
+                return;
+            }
+            System.out.println("\n=== INCREMENTAL BACKUPS ===");
+            for (int i = 0; i < manifests.size(); i++) {
+                System.out.println((i + 1) + ". " + manifests.get(i));
+            }
+            int choice = getIntInput("Select backup: ") - 1;
+            if (choice < 0 || choice >= manifests.size()) {
+                System.out.println("Invalid choice.");
+                return;
+            }
+            String targetDir = getStringInput("Enter directory to restore into: ");
+            int count = BackupUtils.restoreIncrementalBackup(manifests.get(choice), targetDir);
+            System.out.println("Restored " + count + " files to " + targetDir);
+        } catch (IOException e) {
+            System.out.println("Restore failed: " + e.getMessage());
+        }
+    }
+
     // Utility Methods
-    private static void loadInitialData() {
+    /**
+     * Loads the data the change log continues from. Once the log has been
+     * truncated the snapshot is the only full copy of the data, so it is always
+     * loaded when it exists; CSV files in the data directory are only read to
+     * seed a fresh system (no snapshot, no log). CSV files written by an export
+     * are never picked up at startup; use the import menu for those.
+     * @return Change log sequence number the loaded data already includes
+     * @throws IOException if the snapshot exists but cannot be loaded
+     */
+    private static long loadInitialData() throws IOException {
+        if (FileUtils.fileExists(SNAPSHOT_FILE)) {
+            long start = System.currentTimeMillis();
+            SnapshotUtils.SnapshotInfo info;
+            try {
+                info = SnapshotUtils.loadSnapshot(SNAPSHOT_FILE, dataStore);
+            } catch (IOException e) {
+                // Starting from anything else would silently drop changes already truncated from the log
+                throw new IOException("Could not load snapshot " + SNAPSHOT_FILE + " (" + e.getMessage()
+                        + "). Restore it from a backup before starting.", e);
+            }
+            System.out.println("Loaded " + info + " from snapshot in "
+                    + (System.currentTimeMillis() - start) + " ms.");
+            return info.getLogSequenceNumber();
+        }
+        if (WriteAheadLog.hasSegments(WAL_DIR)) {
+            // Never checkpointed, so the log still holds every change
+            return 0L;
+        }
+
+        int seeded = 0;
         try {
-            // Try to load existing data files
+            // Seed a fresh system from existing data files
             if (FileUtils.fileExists(DATA_DIR + "/students.csv")) {
-                List<Student> students = CSVUtils.importStudentsFromCSV(DATA_DIR + "/students.csv");
-                students.forEach(dataStore::addStudent);
-                System.out.println("Loaded " + students.size() + " students from file.");
+                int count = CSVUtils.importStudentsFromCSV(DATA_DIR + "/students.csv", dataStore::addStudent);
+                System.out.println("Loaded " + count + " students from file.");
+                seeded += count;
             }
             
             if (FileUtils.fileExists(DATA_DIR + "/courses.csv")) {
-                List<Course> courses = CSVUtils.importCoursesFromCSV(DATA_DIR + "/courses.csv");
-                courses.forEach(dataStore::addCourse);
-                System.out.println("Loaded " + courses.size() + " courses from file.");
+                int count = CSVUtils.importCoursesFromCSV(DATA_DIR + "/courses.csv", dataStore::addCourse);
+                System.out.println("Loaded " + count + " courses from file.");
+                seeded += count;
             }
             
             if (FileUtils.fileExists(DATA_DIR + "/enrollments.csv")) {
-                List<Enrollment> enrollments = CSVUtils.importEnrollmentsFromCSV(DATA_DIR + "/enrollments.csv");
-                enrollments.forEach(dataStore::addEnrollment);
-                System.out.println("Loaded " + enrollments.size() + " enrollments from file.");
+                int count = CSVUtils.importEnrollmentsFromCSVParallel(DATA_DIR + "/enrollments.csv", dataStore::addEnrollments);
+                System.out.println("Loaded " + count + " enrollments from file.");
+                seeded += count;
             }
         } catch (IOException e) {
             System.out.println("Note: Could not load existing data files. Starting with empty system.");
+            dataStore.clearAllData();
+            return 0L;
+        }
+        if (seeded > 0) {
+            // The seeded records are not in the log, so keep them in a snapshot the log continues from
+            SnapshotUtils.saveSnapshot(dataStore, SNAPSHOT_FILE, 0L);
         }
+        return 0L;
     }
 
     private static String getStringInput(String prompt) {
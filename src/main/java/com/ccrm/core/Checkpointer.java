@@ -0,0 +1,117 @@
+package com.ccrm.core;
+
+import com.ccrm.utils.SnapshotUtils;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically snapshots the DataStore in the background and truncates the
+ * write-ahead log up to the snapshot, so recovery never replays more than
+ * about one checkpoint interval of changes.
+ *
+ * Writers are never blocked. The snapshot is taken from the live concurrent
+ * maps while changes continue, and is stamped with the log sequence number read
+ * before the scan started. Every change up to that number is visible to the
+ * scan (its record was appended after the change was made), and any change the
+ * scan may have caught half-way is logged after it, so replaying the log tail
+ * over the snapshot always yields the exact point-in-time state.
+ */
+public class Checkpointer implements AutoCloseable {
+
+    private static final long DEFAULT_CHECK_INTERVAL_SECONDS = 30;
+    private static final long DEFAULT_MAX_LOG_RECORDS = 100_000;
+    private static final long DEFAULT_MAX_AGE_SECONDS = 300;
+
+    private final DataStore dataStore;
+    private final WriteAheadLog writeAheadLog;
+    private final String snapshotPath;
+    private final long maxLogRecords;
+    private final long maxAgeMillis;
+    private final ScheduledExecutorService scheduler;
+
+    // Guarded by this
+    private long checkpointSequenceNumber;
+    private long lastCheckpointTime;
+
+    public Checkpointer(DataStore dataStore, WriteAheadLog writeAheadLog, String snapshotPath) {
+        this(dataStore, writeAheadLog, snapshotPath, DEFAULT_MAX_LOG_RECORDS, DEFAULT_MAX_AGE_SECONDS);
+    }
+
+    /**
+     * @param dataStore The data store to snapshot
+     * @param writeAheadLog The log the snapshot lets us truncate
+     * @param snapshotPath Path of the snapshot file loaded at startup
+     * @param maxLogRecords Checkpoint once this many records have been logged since the last one
+     * @param maxAgeSeconds Checkpoint any logged changes once the last checkpoint is this old
+     */
+    public Checkpointer(DataStore dataStore, WriteAheadLog writeAheadLog, String snapshotPath,
+                        long maxLogRecords, long maxAgeSeconds) {
+        this.dataStore = dataStore;
+        this.writeAheadLog = writeAheadLog;
+        this.snapshotPath = snapshotPath;
+        this.maxLogRecords = maxLogRecords;
+        this.maxAgeMillis = TimeUnit.SECONDS.toMillis(maxAgeSeconds);
+        this.checkpointSequenceNumber = writeAheadLog.getDurableSequenceNumber();
+        this.lastCheckpointTime = System.currentTimeMillis();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ccrm-checkpointer");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts checking in the background whether a checkpoint is due.
+     */
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::checkpointIfDue, DEFAULT_CHECK_INTERVAL_SECONDS,
+                                         DEFAULT_CHECK_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Writes a snapshot now and truncates the log it covers.
+     * @return Summary of the snapshot written
+     * @throws IOException if the snapshot cannot be written
+     */
+    public synchronized SnapshotUtils.SnapshotInfo checkpoint() throws IOException {
+        // Read before the scan: everything up to here is already in the maps
+        long sequenceNumber = writeAheadLog.getDurableSequenceNumber();
+        SnapshotUtils.SnapshotInfo info = SnapshotUtils.saveSnapshot(dataStore, snapshotPath, sequenceNumber);
+        writeAheadLog.truncate(sequenceNumber);
+        checkpointSequenceNumber = sequenceNumber;
+        lastCheckpointTime = System.currentTimeMillis();
+        return info;
+    }
+
+    private synchronized void checkpointIfDue() {
+        long pending = writeAheadLog.getDurableSequenceNumber() - checkpointSequenceNumber;
+        boolean due = pending >= maxLogRecords
+                || (pending > 0 && System.currentTimeMillis() - lastCheckpointTime >= maxAgeMillis);
+        if (!due) {
+            return;
+        }
+        try {
+            checkpoint();
+        } catch (IOException | RuntimeException e) {
+            // Keep the schedule alive; the log still holds every change
+            System.err.println("Background checkpoint failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stops background checkpoints, waiting for one in progress to finish.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
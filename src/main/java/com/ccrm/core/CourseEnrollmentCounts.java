@@ -0,0 +1,108 @@
+package com.ccrm.core;
+
+import com.ccrm.model.Course;
+import com.ccrm.model.Enrollment;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running enrollment counts of one course, kept by DataStore as enrollments
+ * are added, graded, withdrawn and removed.
+ *
+ * Active enrollments are those not withdrawn (graded ones stay active), so
+ * active plus withdrawn is the total. The counts are read one at a time, so
+ * while enrollments change they may not add up exactly.
+ *
+ * The active count is also the number of seats taken. A new enrollment can
+ * reserve its seat with a compare-and-set on it, so concurrent enrollments
+ * never push it past the course's capacity. Status changes move it only on a
+ * real withdrawal or reinstatement, never down and back up around a grade, as
+ * that would free the seat for a moment.
+ */
+public class CourseEnrollmentCounts {
+
+    static final CourseEnrollmentCounts NONE = new CourseEnrollmentCounts();
+
+    private final LongAdder total = new LongAdder();
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder withdrawn = new LongAdder();
+
+    /**
+     * Takes a seat for a new enrollment if one is free.
+     * @param capacity The course's capacity, or Course.UNLIMITED_CAPACITY
+     * @return false if the course is full
+     */
+    boolean tryReserveSeat(int capacity) {
+        if (capacity == Course.UNLIMITED_CAPACITY) {
+            active.incrementAndGet();
+            return true;
+        }
+        while (true) {
+            int taken = active.get();
+            if (taken >= capacity) {
+                return false;
+            }
+            if (active.compareAndSet(taken, taken + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void apply(Enrollment enrollment, int sign) {
+        apply(enrollment, sign, false);
+    }
+
+    /**
+     * Counts an enrollment in (sign 1) or out (sign -1).
+     * @param seatReserved Whether the enrollment's seat was already counted by tryReserveSeat
+     */
+    void apply(Enrollment enrollment, int sign, boolean seatReserved) {
+        total.add(sign);
+        if (enrollment.isActive()) {
+            if (!seatReserved) {
+                active.addAndGet(sign);
+            }
+        } else {
+            withdrawn.add(sign);
+        }
+        if (enrollment.isCompleted()) {
+            completed.add(sign);
+        }
+    }
+
+    /**
+     * Moves an enrollment that stays in the course from one status to another,
+     * changing each count once by its net difference.
+     * @param before The enrollment's old status
+     * @param after The enrollment's new status
+     */
+    void change(Enrollment before, Enrollment after) {
+        int activeDelta = (after.isActive() ? 1 : 0) - (before.isActive() ? 1 : 0);
+        if (activeDelta != 0) {
+            active.addAndGet(activeDelta);
+            withdrawn.add(-activeDelta);
+        }
+        int completedDelta = (after.isCompleted() ? 1 : 0) - (before.isCompleted() ? 1 : 0);
+        if (completedDelta != 0) {
+            completed.add(completedDelta);
+        }
+    }
+
+    public int getTotal() {
+        return total.intValue();
+    }
+
+    public int getActive() {
+        return active.get();
+    }
+
+    public int getCompleted() {
+        return completed.intValue();
+    }
+
+    public int getWithdrawn() {
+        return withdrawn.intValue();
+    }
+}
@@ -1,9 +1,16 @@
 package com.ccrm.core;
 
 import com.ccrm.model.*;
+import com.ccrm.enums.Department;
+import com.ccrm.enums.Grade;
+import com.ccrm.enums.Semester;
+import com.ccrm.interfaces.DataChangeListener;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Singleton class for centralized data management.
@@ -19,14 +26,110 @@ public class DataStore {
     private final Map<String, Course> courses;
     private final Map<String, Enrollment> enrollments;
 
+    // Secondary indexes: studentId / courseId -> (enrollmentId -> enrollment).
+    // Entries reference the same Enrollment objects as the primary map, so
+    // status changes made on an enrollment are visible through them as well.
+    private final Map<String, Map<String, Enrollment>> enrollmentsByStudent;
+    private final Map<String, Map<String, Enrollment>> enrollmentsByCourse;
+
+    // Composite-key index: (studentId, courseId) -> the active enrollment for that pair
+    private final Map<EnrollmentKey, Enrollment> activeEnrollmentsByKey;
+
+    // Exact keys of enrollmentsByStudent / enrollmentsByCourse grouped by their
+    // case-folded form, so case-insensitive ID lookups can use those indexes
+    private final Map<String, Set<String>> studentKeysByFold;
+    private final Map<String, Set<String>> courseKeysByFold;
+
+    // Query indexes over the saved state of students and courses: value -> (id -> record)
+    private final Map<Boolean, Map<String, Student>> studentsByActive;
+    private final Map<Department, Map<String, Course>> coursesByDepartment;
+    private final Map<Semester, Map<String, Course>> coursesBySemester;
+    private final Map<Boolean, Map<String, Course>> coursesByActive;
+
+    // Substring indexes over free-text fields
+    private final TrigramIndex studentNameIndex;
+    private final TrigramIndex studentEmailIndex;
+    private final TrigramIndex courseTitleIndex;
+    private final TrigramIndex courseDescriptionIndex;
+
+    // Ordered indexes for prefix and range queries (text keys are lowercased)
+    private final SortedIndex<String> studentRegistrationIndex;
+    private final SortedIndex<Double> studentGpaIndex;
+    private final SortedIndex<String> courseCodeIndex;
+
+    // Running per-student credit load and GPA totals, kept in step with enrollments
+    private final Map<String, StudentTotals> studentTotals;
+    // Credit hours each course's enrollments are currently counted with in studentTotals
+    private final Map<String, Integer> accountedCreditHours;
+    // Running per-course enrollment counts by status
+    private final Map<String, CourseEnrollmentCounts> courseEnrollmentCounts;
+    // Status each enrollment is counted with in the indexes above, packed by statusCode().
+    // Stored instances can be changed in place before they are saved again, so the
+    // status they had when indexed cannot be read back from the instance itself.
+    private final Map<String, Integer> indexedStatuses;
+
+    // Striped locks for per-student check-and-act sequences such as enrollment
+    private final Object[] studentLocks;
+    // Striped locks held while a record is changed and listeners are notified,
+    // so listeners see each record's changes in the order they were applied
+    private final Object[] recordLocks;
+
+    // Notified of every change, e.g. by the write-ahead log
+    private final List<DataChangeListener> listeners;
+    // Per thread: open deferCompletion() depth
+    private final ThreadLocal<int[]> completionDeferrals = ThreadLocal.withInitial(() -> new int[1]);
+
     // Configuration constants
     private static final int MAX_CREDITS_PER_SEMESTER = 18;
+    private static final int STUDENT_LOCK_STRIPES = 64;
+    private static final int RECORD_LOCK_STRIPES = 64;
+    private static final Grade[] GRADES = Grade.values();
 
     private DataStore() {
         this.students = new ConcurrentHashMap<>();
         this.instructors = new ConcurrentHashMap<>();
         this.courses = new ConcurrentHashMap<>();
         this.enrollments = new ConcurrentHashMap<>();
+        this.enrollmentsByStudent = new ConcurrentHashMap<>();
+        this.enrollmentsByCourse = new ConcurrentHashMap<>();
+        this.activeEnrollmentsByKey = new ConcurrentHashMap<>();
+        this.studentKeysByFold = new ConcurrentHashMap<>();
+        this.courseKeysByFold = new ConcurrentHashMap<>();
+        // Buckets exist for every value up front, so the outer maps are never modified
+        this.studentsByActive = new HashMap<>();
+        this.coursesByActive = new HashMap<>();
+        for (Boolean active : new Boolean[] {Boolean.TRUE, Boolean.FALSE}) {
+            studentsByActive.put(active, new ConcurrentHashMap<>());
+            coursesByActive.put(active, new ConcurrentHashMap<>());
+        }
+        this.studentNameIndex = new TrigramIndex();
+        this.studentEmailIndex = new TrigramIndex();
+        this.courseTitleIndex = new TrigramIndex();
+        this.courseDescriptionIndex = new TrigramIndex();
+        this.studentRegistrationIndex = new SortedIndex<>();
+        this.studentGpaIndex = new SortedIndex<>();
+        this.courseCodeIndex = new SortedIndex<>();
+        this.coursesByDepartment = new EnumMap<>(Department.class);
+        for (Department department : Department.values()) {
+            coursesByDepartment.put(department, new ConcurrentHashMap<>());
+        }
+        this.coursesBySemester = new EnumMap<>(Semester.class);
+        for (Semester semester : Semester.values()) {
+            coursesBySemester.put(semester, new ConcurrentHashMap<>());
+        }
+        this.studentTotals = new ConcurrentHashMap<>();
+        this.accountedCreditHours = new ConcurrentHashMap<>();
+        this.courseEnrollmentCounts = new ConcurrentHashMap<>();
+        this.indexedStatuses = new ConcurrentHashMap<>();
+        this.studentLocks = new Object[STUDENT_LOCK_STRIPES];
+        for (int i = 0; i < studentLocks.length; i++) {
+            studentLocks[i] = new Object();
+        }
+        this.recordLocks = new Object[RECORD_LOCK_STRIPES];
+        for (int i = 0; i < recordLocks.length; i++) {
+            recordLocks[i] = new Object();
+        }
+        this.listeners = new CopyOnWriteArrayList<>();
     }
 
     /**
@@ -44,9 +147,108 @@ public class DataStore {
         return instance;
     }
 
+    /**
+     * Returns the lock guarding multi-step updates for a student.
+     * Locks are striped, so unrelated students rarely share a lock and
+     * never contend on a single global one.
+     * @param studentId The student ID
+     * @return The lock object for the student's stripe
+     */
+    public Object getStudentLock(String studentId) {
+        return stripe(studentLocks, studentId);
+    }
+
+    /**
+     * Returns the lock every change to a record with the given ID holds from
+     * updating the maps until its listeners have been notified. A record is
+     * therefore always in its new state before a listener can make the change
+     * durable, and changes to one record reach listeners in the order made.
+     */
+    private Object recordLock(String id) {
+        return stripe(recordLocks, id);
+    }
+
+    private static Object stripe(Object[] locks, String key) {
+        int hash = key.hashCode();
+        return locks[(hash ^ (hash >>> 16)) & (locks.length - 1)];
+    }
+
+    /**
+     * Work run by {@link #deferCompletion}.
+     */
+    @FunctionalInterface
+    public interface ChangeAction<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    /**
+     * Runs several changes and reports them complete to listeners once, after the
+     * action returns, instead of after each change. A caller can make changes under
+     * its own lock inside the action and then wait for them to become durable
+     * (e.g. in the write-ahead log) with the lock already released.
+     * @param action The changes to make
+     * @return The action's result
+     * @throws E if the action fails, in which case nothing is reported complete
+     */
+    public <T, E extends Exception> T deferCompletion(ChangeAction<T, E> action) throws E {
+        int[] depth = completionDeferrals.get();
+        depth[0]++;
+        T result;
+        try {
+            result = action.run();
+        } finally {
+            depth[0]--;
+        }
+        if (depth[0] == 0) {
+            completeChange();
+        }
+        return result;
+    }
+
+    public void addDataChangeListener(DataChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeDataChangeListener(DataChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void fireChange(Consumer<DataChangeListener> event) {
+        for (DataChangeListener listener : listeners) {
+            event.accept(listener);
+        }
+    }
+
+    private void completeChange() {
+        if (completionDeferrals.get()[0] > 0) {
+            // Reported once when the outermost deferCompletion() returns
+            return;
+        }
+        for (DataChangeListener listener : listeners) {
+            listener.changeComplete();
+        }
+    }
+
     // Student management methods
+    /**
+     * Adds a student, or replaces the stored one with the same ID. Changes made
+     * to a stored student are saved by passing it here again.
+     * @param student The student to add or replace
+     */
     public void addStudent(Student student) {
-        students.put(student.getId(), student);
+        synchronized (recordLock(student.getId())) {
+            // compute() serializes writers of the same student, keeping the indexes in step
+            students.compute(student.getId(), (id, previous) -> {
+                indexStudent(student);
+                return student;
+            });
+            fireChange(listener -> listener.studentSaved(student));
+        }
+        completeChange();
+    }
+
+    public void addStudents(Collection<Student> batch) {
+        batch.forEach(this::addStudent);
     }
 
     public Student getStudent(String studentId) {
@@ -57,6 +259,15 @@ public class DataStore {
         return new ArrayList<>(students.values());
     }
 
+    /**
+     * Streams over the live student map without the defensive copy made by
+     * getAllStudents(). The view is weakly consistent under concurrent updates.
+     * @return Stream of all students
+     */
+    public Stream<Student> streamStudents() {
+        return students.values().stream();
+    }
+
     public List<Student> getActiveStudents() {
         return students.values().stream()
                 .filter(Student::isActive)
@@ -64,12 +275,89 @@ public class DataStore {
     }
 
     public void removeStudent(String studentId) {
-        students.remove(studentId);
+        synchronized (recordLock(studentId)) {
+            if (students.containsKey(studentId)) {
+                students.computeIfPresent(studentId, (id, previous) -> {
+                    unindexStudent(id);
+                    return null;
+                });
+                fireChange(listener -> listener.studentRemoved(studentId));
+            }
+        }
+        completeChange();
+    }
+
+    /**
+     * Live view of the students saved with the given active flag.
+     * @param active The active flag
+     * @return Unmodifiable, weakly consistent view
+     */
+    public Collection<Student> viewStudentsByActive(boolean active) {
+        return Collections.unmodifiableCollection(studentsByActive.get(active).values());
+    }
+
+    /**
+     * Finds the students whose name may contain a fragment, ignoring case.
+     * @param fragment The text searched for
+     * @return Candidate students, or null if the fragment cannot narrow the search
+     */
+    public List<Student> findStudentsByNameFragment(String fragment) {
+        return resolve(studentNameIndex.candidates(fragment), students);
+    }
+
+    /**
+     * Finds the students whose email may contain a fragment, ignoring case.
+     * @param fragment The text searched for
+     * @return Candidate students, or null if the fragment cannot narrow the search
+     */
+    public List<Student> findStudentsByEmailFragment(String fragment) {
+        return resolve(studentEmailIndex.candidates(fragment), students);
+    }
+
+    /**
+     * Finds the students whose registration number starts with a prefix, ignoring case.
+     * @param prefix The prefix
+     * @return The students found, in registration number order
+     */
+    public List<Student> findStudentsByRegistrationPrefix(String prefix) {
+        String lower = prefix.toLowerCase();
+        return resolve(studentRegistrationIndex.scanFrom(lower, key -> key.startsWith(lower)), students);
+    }
+
+    /**
+     * Finds the students whose GPA lies strictly between two bounds.
+     * @param above Lower bound (exclusive), or null for none
+     * @param below Upper bound (exclusive), or null for none
+     * @return The students found, in ascending GPA order
+     */
+    public List<Student> findStudentsByGpaRange(Double above, Double below) {
+        return resolve(studentGpaIndex.range(above, false, below, false), students);
+    }
+
+    private void indexStudent(Student student) {
+        removeFromBuckets(studentsByActive, student.getId());
+        studentsByActive.get(student.isActive()).put(student.getId(), student);
+        studentNameIndex.put(student.getId(), student.getFullName());
+        studentEmailIndex.put(student.getId(), student.getEmail());
+        studentRegistrationIndex.put(student.getId(), lowerCase(student.getRegistrationNumber()));
+        studentGpaIndex.put(student.getId(), student.getCurrentGPA());
+    }
+
+    private void unindexStudent(String studentId) {
+        removeFromBuckets(studentsByActive, studentId);
+        studentNameIndex.remove(studentId);
+        studentEmailIndex.remove(studentId);
+        studentRegistrationIndex.remove(studentId);
+        studentGpaIndex.remove(studentId);
     }
 
     // Instructor management methods
     public void addInstructor(Instructor instructor) {
-        instructors.put(instructor.getId(), instructor);
+        synchronized (recordLock(instructor.getId())) {
+            instructors.put(instructor.getId(), instructor);
+            fireChange(listener -> listener.instructorSaved(instructor));
+        }
+        completeChange();
     }
 
     public Instructor getInstructor(String instructorId) {
@@ -80,6 +368,10 @@ public class DataStore {
         return new ArrayList<>(instructors.values());
     }
 
+    public Stream<Instructor> streamInstructors() {
+        return instructors.values().stream();
+    }
+
     public List<Instructor> getActiveInstructors() {
         return instructors.values().stream()
                 .filter(Instructor::isActive)
@@ -87,12 +379,55 @@ public class DataStore {
     }
 
     public void removeInstructor(String instructorId) {
-        instructors.remove(instructorId);
+        boolean removed;
+        synchronized (recordLock(instructorId)) {
+            removed = instructors.remove(instructorId) != null;
+            if (removed) {
+                fireChange(listener -> listener.instructorRemoved(instructorId));
+            }
+        }
+        if (removed) {
+            completeChange();
+        }
     }
 
     // Course management methods
     public void addCourse(Course course) {
-        courses.put(course.getCourseId(), course);
+        synchronized (recordLock(course.getCourseId())) {
+            courses.compute(course.getCourseId(), (id, previous) -> {
+                indexCourse(course);
+                return course;
+            });
+            reaccountCourseCredits(course.getCourseId(), course.getCreditHours());
+            fireChange(listener -> listener.courseSaved(course));
+        }
+        completeChange();
+    }
+
+    /**
+     * Changes a course's credit hours and re-weighs the credit load and GPA
+     * of every student enrolled in it. Credit hours must be changed through
+     * this method (or addCourse) for the per-student totals to stay correct.
+     * @param courseId The course ID
+     * @param creditHours The new credit hours
+     */
+    public void updateCourseCreditHours(String courseId, int creditHours) {
+        Course course;
+        synchronized (recordLock(courseId)) {
+            course = courses.get(courseId);
+            if (course != null) {
+                course.setCreditHours(creditHours);
+                reaccountCourseCredits(courseId, creditHours);
+                fireChange(listener -> listener.courseSaved(course));
+            }
+        }
+        if (course != null) {
+            completeChange();
+        }
+    }
+
+    public void addCourses(Collection<Course> batch) {
+        batch.forEach(this::addCourse);
     }
 
     public Course getCourse(String courseId) {
@@ -103,6 +438,10 @@ public class DataStore {
         return new ArrayList<>(courses.values());
     }
 
+    public Stream<Course> streamCourses() {
+        return courses.values().stream();
+    }
+
     public List<Course> getActiveCourses() {
         return courses.values().stream()
                 .filter(Course::isActive)
@@ -122,12 +461,190 @@ public class DataStore {
     }
 
     public void removeCourse(String courseId) {
-        courses.remove(courseId);
+        synchronized (recordLock(courseId)) {
+            if (courses.containsKey(courseId)) {
+                courses.computeIfPresent(courseId, (id, previous) -> {
+                    unindexCourse(id);
+                    reaccountCourseCredits(id, 0);
+                    return null;
+                });
+                fireChange(listener -> listener.courseRemoved(courseId));
+            }
+        }
+        completeChange();
+    }
+
+    /**
+     * Live view of the courses saved in a department.
+     * @param department The department
+     * @return Unmodifiable, weakly consistent view
+     */
+    public Collection<Course> viewCoursesByDepartment(Department department) {
+        return Collections.unmodifiableCollection(coursesByDepartment.get(department).values());
+    }
+
+    /**
+     * Live view of the courses saved in a semester.
+     * @param semester The semester
+     * @return Unmodifiable, weakly consistent view
+     */
+    public Collection<Course> viewCoursesBySemester(Semester semester) {
+        return Collections.unmodifiableCollection(coursesBySemester.get(semester).values());
+    }
+
+    /**
+     * Live view of the courses saved with the given active flag.
+     * @param active The active flag
+     * @return Unmodifiable, weakly consistent view
+     */
+    public Collection<Course> viewCoursesByActive(boolean active) {
+        return Collections.unmodifiableCollection(coursesByActive.get(active).values());
+    }
+
+    /**
+     * Finds the courses whose title may contain a fragment, ignoring case.
+     * @param fragment The text searched for
+     * @return Candidate courses, or null if the fragment cannot narrow the search
+     */
+    public List<Course> findCoursesByTitleFragment(String fragment) {
+        return resolve(courseTitleIndex.candidates(fragment), courses);
+    }
+
+    /**
+     * Finds the courses whose description may contain a fragment, ignoring case.
+     * @param fragment The text searched for
+     * @return Candidate courses, or null if the fragment cannot narrow the search
+     */
+    public List<Course> findCoursesByDescriptionFragment(String fragment) {
+        return resolve(courseDescriptionIndex.candidates(fragment), courses);
+    }
+
+    /**
+     * Finds the courses whose code starts with a prefix, ignoring case.
+     * @param prefix The prefix
+     * @return The courses found, in course code order
+     */
+    public List<Course> findCoursesByCodePrefix(String prefix) {
+        String lower = prefix.toLowerCase();
+        return resolve(courseCodeIndex.scanFrom(lower, key -> key.startsWith(lower)), courses);
+    }
+
+    private static String lowerCase(String text) {
+        return text != null ? text.toLowerCase() : null;
+    }
+
+    private static <K, T> void removeFromBuckets(Map<K, Map<String, T>> buckets, String id) {
+        // The stored instance may have been changed in place, so its old value is unknown: clear every bucket
+        for (Map<String, T> bucket : buckets.values()) {
+            bucket.remove(id);
+        }
+    }
+
+    private static <T> List<T> resolve(Collection<String> ids, Map<String, T> records) {
+        if (ids == null) {
+            return null;
+        }
+        List<T> found = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            T record = records.get(id);
+            if (record != null) {
+                found.add(record);
+            }
+        }
+        return found;
+    }
+
+    private void indexCourse(Course course) {
+        removeFromBuckets(coursesByDepartment, course.getCourseId());
+        removeFromBuckets(coursesBySemester, course.getCourseId());
+        removeFromBuckets(coursesByActive, course.getCourseId());
+        if (course.getDepartment() != null) {
+            coursesByDepartment.get(course.getDepartment()).put(course.getCourseId(), course);
+        }
+        if (course.getSemester() != null) {
+            coursesBySemester.get(course.getSemester()).put(course.getCourseId(), course);
+        }
+        coursesByActive.get(course.isActive()).put(course.getCourseId(), course);
+        courseTitleIndex.put(course.getCourseId(), course.getTitle());
+        courseDescriptionIndex.put(course.getCourseId(), course.getDescription());
+        courseCodeIndex.put(course.getCourseId(), lowerCase(course.getCourseCode()));
+    }
+
+    private void unindexCourse(String courseId) {
+        removeFromBuckets(coursesByDepartment, courseId);
+        removeFromBuckets(coursesBySemester, courseId);
+        removeFromBuckets(coursesByActive, courseId);
+        courseTitleIndex.remove(courseId);
+        courseDescriptionIndex.remove(courseId);
+        courseCodeIndex.remove(courseId);
     }
 
     // Enrollment management methods
     public void addEnrollment(Enrollment enrollment) {
-        enrollments.put(enrollment.getEnrollmentId(), enrollment);
+        synchronized (recordLock(enrollment.getEnrollmentId())) {
+            // compute() serializes writers of the same enrollment ID, so the
+            // primary map and the indexes are always updated together.
+            enrollments.compute(enrollment.getEnrollmentId(), (id, previous) -> {
+                if (previous == null) {
+                    indexEnrollment(enrollment);
+                } else if (previous.getStudentId().equals(enrollment.getStudentId())
+                        && previous.getCourseId().equals(enrollment.getCourseId())) {
+                    // Same student and course: only the status can differ
+                    addToIndex(enrollmentsByStudent, studentKeysByFold, enrollment.getStudentId(), enrollment);
+                    addToIndex(enrollmentsByCourse, courseKeysByFold, enrollment.getCourseId(), enrollment);
+                    // previous may be this very instance, already changed in place
+                    reindexEnrollmentStatus(indexedStatusOf(previous), enrollment);
+                } else {
+                    unindexEnrollment(previous);
+                    indexEnrollment(enrollment);
+                }
+                return enrollment;
+            });
+            fireChange(listener -> listener.enrollmentSaved(enrollment));
+        }
+        completeChange();
+    }
+
+    /**
+     * Adds a new enrollment only if its course has a free seat. The seat is taken
+     * with a compare-and-set on the course's active count before the enrollment is
+     * stored, so concurrent enrollments cannot overbook the course, and a full
+     * course turns requests away without them waiting on each other.
+     * @param enrollment The new enrollment
+     * @return false if the course is full, in which case nothing was added
+     */
+    public boolean addEnrollmentWithinCapacity(Enrollment enrollment) {
+        if (!enrollment.isActive()) {
+            // Takes no seat
+            addEnrollment(enrollment);
+            return true;
+        }
+        Course course = courses.get(enrollment.getCourseId());
+        int capacity = course != null ? course.getCapacity() : Course.UNLIMITED_CAPACITY;
+        if (!countsFor(enrollment.getCourseId()).tryReserveSeat(capacity)) {
+            return false;
+        }
+        synchronized (recordLock(enrollment.getEnrollmentId())) {
+            enrollments.compute(enrollment.getEnrollmentId(), (id, previous) -> {
+                if (previous != null) {
+                    unindexEnrollment(previous);
+                }
+                indexEnrollment(enrollment, true);
+                return enrollment;
+            });
+            fireChange(listener -> listener.enrollmentSaved(enrollment));
+        }
+        completeChange();
+        return true;
+    }
+
+    /**
+     * Bulk-inserts enrollments, e.g. one parsed chunk of a parallel import.
+     * Safe to call from several threads at once.
+     * @param batch The enrollments to add
+     */
+    public void addEnrollments(Collection<Enrollment> batch) {
+        batch.forEach(this::addEnrollment);
     }
 
     public Enrollment getEnrollment(String enrollmentId) {
@@ -138,16 +655,101 @@ public class DataStore {
         return new ArrayList<>(enrollments.values());
     }
 
+    public Stream<Enrollment> streamEnrollments() {
+        return enrollments.values().stream();
+    }
+
     public List<Enrollment> getEnrollmentsByStudent(String studentId) {
-        return enrollments.values().stream()
-                .filter(enrollment -> enrollment.getStudentId().equals(studentId))
-                .collect(Collectors.toList());
+        Map<String, Enrollment> studentEnrollments = enrollmentsByStudent.get(studentId);
+        return studentEnrollments != null ? new ArrayList<>(studentEnrollments.values()) : new ArrayList<>();
     }
 
     public List<Enrollment> getEnrollmentsByCourse(String courseId) {
-        return enrollments.values().stream()
-                .filter(enrollment -> enrollment.getCourseId().equals(courseId))
-                .collect(Collectors.toList());
+        Map<String, Enrollment> courseEnrollments = enrollmentsByCourse.get(courseId);
+        return courseEnrollments != null ? new ArrayList<>(courseEnrollments.values()) : new ArrayList<>();
+    }
+
+    /**
+     * Finds the enrollments whose student ID equals the given one ignoring case,
+     * through the by-student index.
+     * @param studentId The student ID
+     * @return The enrollments found
+     */
+    public List<Enrollment> findEnrollmentsByStudentIgnoreCase(String studentId) {
+        return findIgnoreCase(enrollmentsByStudent, studentKeysByFold, studentId);
+    }
+
+    /**
+     * Finds the enrollments whose course ID equals the given one ignoring case,
+     * through the by-course index.
+     * @param courseId The course ID
+     * @return The enrollments found
+     */
+    public List<Enrollment> findEnrollmentsByCourseIgnoreCase(String courseId) {
+        return findIgnoreCase(enrollmentsByCourse, courseKeysByFold, courseId);
+    }
+
+    /**
+     * Live view of the active enrollments.
+     * @return Unmodifiable, weakly consistent view
+     */
+    public Collection<Enrollment> viewActiveEnrollments() {
+        return Collections.unmodifiableCollection(activeEnrollmentsByKey.values());
+    }
+
+    private static List<Enrollment> findIgnoreCase(Map<String, Map<String, Enrollment>> index,
+                                                   Map<String, Set<String>> keysByFold, String key) {
+        List<Enrollment> found = new ArrayList<>();
+        Set<String> keys = keysByFold.get(foldCase(key));
+        if (keys != null) {
+            for (String exactKey : keys) {
+                Map<String, Enrollment> bucket = index.get(exactKey);
+                if (bucket != null) {
+                    found.addAll(bucket.values());
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Maps each code point to the lower case of its upper case, the same
+     * comparison String.equalsIgnoreCase makes, so IDs that are equal ignoring
+     * case fold to the same key.
+     */
+    private static String foldCase(String key) {
+        StringBuilder folded = new StringBuilder(key.length());
+        key.codePoints().forEach(cp -> folded.appendCodePoint(Character.toLowerCase(Character.toUpperCase(cp))));
+        return folded.toString();
+    }
+
+    private static void addFoldedKey(Map<String, Set<String>> keysByFold, String key) {
+        keysByFold.compute(foldCase(key), (folded, keys) -> {
+            Set<String> updated = keys != null ? keys : ConcurrentHashMap.newKeySet();
+            updated.add(key);
+            return updated;
+        });
+    }
+
+    private static void removeFoldedKey(Map<String, Set<String>> keysByFold, String key) {
+        keysByFold.computeIfPresent(foldCase(key), (folded, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    /**
+     * Looks up the active enrollment of a student in a course without scanning.
+     * @param studentId The student ID
+     * @param courseId The course ID
+     * @return The active enrollment, or null if the student is not actively enrolled
+     */
+    public Enrollment getActiveEnrollment(String studentId, String courseId) {
+        return activeEnrollmentsByKey.get(new EnrollmentKey(studentId, courseId));
+    }
+
+    public boolean isActivelyEnrolled(String studentId, String courseId) {
+        return activeEnrollmentsByKey.containsKey(new EnrollmentKey(studentId, courseId));
     }
 
     public List<Enrollment> getActiveEnrollments() {
@@ -157,43 +759,219 @@ public class DataStore {
     }
 
     public void removeEnrollment(String enrollmentId) {
-        enrollments.remove(enrollmentId);
+        synchronized (recordLock(enrollmentId)) {
+            if (enrollments.containsKey(enrollmentId)) {
+                enrollments.computeIfPresent(enrollmentId, (id, previous) -> {
+                    unindexEnrollment(previous);
+                    return null;
+                });
+                fireChange(listener -> listener.enrollmentRemoved(enrollmentId));
+            }
+        }
+        completeChange();
     }
 
-    // Business logic methods
-    public int calculateStudentCredits(String studentId) {
-        return enrollments.values().stream()
-                .filter(enrollment -> enrollment.getStudentId().equals(studentId))
-                .filter(Enrollment::isActive)
-                .mapToInt(enrollment -> {
-                    Course course = courses.get(enrollment.getCourseId());
-                    return course != null ? course.getCreditHours() : 0;
-                })
-                .sum();
+    /**
+     * Withdraws an enrollment and keeps the status-dependent indexes in sync.
+     * @param enrollment The enrollment to withdraw
+     */
+    public void withdrawEnrollment(Enrollment enrollment) {
+        changeEnrollmentStatus(enrollment, Enrollment::withdraw);
     }
 
-    public double calculateStudentGPA(String studentId) {
-        List<Enrollment> completedEnrollments = enrollments.values().stream()
-                .filter(enrollment -> enrollment.getStudentId().equals(studentId))
-                .filter(Enrollment::isCompleted)
-                .collect(Collectors.toList());
+    /**
+     * Records a grade on an enrollment and updates the student's GPA totals.
+     * @param enrollment The enrollment to grade
+     * @param numericGrade The numeric grade (0-100)
+     */
+    public void recordEnrollmentGrade(Enrollment enrollment, double numericGrade) {
+        changeEnrollmentStatus(enrollment, e -> e.recordGrade(numericGrade));
+    }
 
-        if (completedEnrollments.isEmpty()) {
-            return 0.0;
+    private void changeEnrollmentStatus(Enrollment enrollment, Consumer<Enrollment> change) {
+        synchronized (recordLock(enrollment.getEnrollmentId())) {
+            if (enrollments.get(enrollment.getEnrollmentId()) != enrollment) {
+                // Not the stored instance, so nothing is indexed for it
+                change.accept(enrollment);
+            } else {
+                enrollments.compute(enrollment.getEnrollmentId(), (id, current) -> {
+                    Enrollment before = indexedStatusOf(current);
+                    change.accept(current);
+                    reindexEnrollmentStatus(before, current);
+                    return current;
+                });
+                fireChange(listener -> listener.enrollmentSaved(enrollment));
+            }
         }
+        completeChange();
+    }
 
-        double totalGradePoints = 0.0;
-        int totalCredits = 0;
+    private void indexEnrollment(Enrollment enrollment) {
+        indexEnrollment(enrollment, false);
+    }
 
-        for (Enrollment enrollment : completedEnrollments) {
-            Course course = courses.get(enrollment.getCourseId());
-            if (course != null) {
-                totalGradePoints += enrollment.getLetterGrade().getGradePoints() * course.getCreditHours();
-                totalCredits += course.getCreditHours();
-            }
+    private void indexEnrollment(Enrollment enrollment, boolean seatReserved) {
+        addToIndex(enrollmentsByStudent, studentKeysByFold, enrollment.getStudentId(), enrollment);
+        addToIndex(enrollmentsByCourse, courseKeysByFold, enrollment.getCourseId(), enrollment);
+        indexEnrollmentStatus(enrollment, seatReserved);
+    }
+
+    private void unindexEnrollment(Enrollment enrollment) {
+        unindexEnrollmentStatus(enrollment);
+        removeFromIndex(enrollmentsByStudent, studentKeysByFold, enrollment.getStudentId(),
+                        enrollment.getEnrollmentId());
+        removeFromIndex(enrollmentsByCourse, courseKeysByFold, enrollment.getCourseId(),
+                        enrollment.getEnrollmentId());
+    }
+
+    // Indexes that depend on the enrollment's status rather than on its identity
+    private void indexEnrollmentStatus(Enrollment enrollment, boolean seatReserved) {
+        if (enrollment.isActive()) {
+            activeEnrollmentsByKey.put(EnrollmentKey.of(enrollment), enrollment);
         }
+        totalsFor(enrollment.getStudentId()).apply(enrollment, creditHoursOf(enrollment.getCourseId()), 1);
+        countsFor(enrollment.getCourseId()).apply(enrollment, 1, seatReserved);
+        indexedStatuses.put(enrollment.getEnrollmentId(), statusCode(enrollment));
+    }
 
-        return totalCredits > 0 ? totalGradePoints / totalCredits : 0.0;
+    private void unindexEnrollmentStatus(Enrollment enrollment) {
+        Enrollment indexed = indexedStatusOf(enrollment);
+        activeEnrollmentsByKey.remove(EnrollmentKey.of(enrollment), enrollment);
+        totalsFor(enrollment.getStudentId()).apply(indexed, creditHoursOf(enrollment.getCourseId()), -1);
+        countsFor(enrollment.getCourseId()).apply(indexed, -1);
+        indexedStatuses.remove(enrollment.getEnrollmentId());
+    }
+
+    /**
+     * Moves the status-dependent indexes of an enrollment that keeps its student
+     * and course from its old status to its new one, by net change. Unindexing
+     * the old status first would free its seat for a moment, letting a concurrent
+     * enrollment into a full course or past the credit limit, and hide it from
+     * the active index.
+     * @param before The old status, as returned by indexedStatusOf()
+     * @param after The enrollment with its new status
+     */
+    private void reindexEnrollmentStatus(Enrollment before, Enrollment after) {
+        EnrollmentKey key = EnrollmentKey.of(after);
+        if (after.isActive()) {
+            activeEnrollmentsByKey.put(key, after);
+        } else if (before.isActive()) {
+            activeEnrollmentsByKey.computeIfPresent(key, (k, indexed) ->
+                    indexed.getEnrollmentId().equals(after.getEnrollmentId()) ? null : indexed);
+        }
+        totalsFor(after.getStudentId()).change(before, after, creditHoursOf(after.getCourseId()));
+        countsFor(after.getCourseId()).change(before, after);
+        indexedStatuses.put(after.getEnrollmentId(), statusCode(after));
+    }
+
+    /**
+     * Returns a detached copy of an enrollment carrying the status it is currently
+     * counted with in the indexes, which differs from its own fields if it was
+     * changed in place since it was last saved.
+     * @param enrollment The indexed enrollment
+     * @return Copy holding the indexed active flag, completion and letter grade
+     */
+    private Enrollment indexedStatusOf(Enrollment enrollment) {
+        Integer code = indexedStatuses.get(enrollment.getEnrollmentId());
+        int status = code != null ? code : statusCode(enrollment);
+        Enrollment copy = new Enrollment(enrollment.getEnrollmentId(), enrollment.getStudentId(),
+                                         enrollment.getCourseId());
+        copy.setActive((status & 1) != 0);
+        copy.setCompleted((status & 2) != 0);
+        copy.setLetterGrade(status >> 2 != 0 ? GRADES[(status >> 2) - 1] : null);
+        return copy;
+    }
+
+    // Packs the fields the status indexes read; small enough for Integer's cache
+    private static int statusCode(Enrollment enrollment) {
+        int grade = enrollment.getLetterGrade() != null ? enrollment.getLetterGrade().ordinal() + 1 : 0;
+        return grade << 2 | (enrollment.isCompleted() ? 2 : 0) | (enrollment.isActive() ? 1 : 0);
+    }
+
+    private StudentTotals totalsFor(String studentId) {
+        return studentTotals.computeIfAbsent(studentId, id -> new StudentTotals());
+    }
+
+    private CourseEnrollmentCounts countsFor(String courseId) {
+        return courseEnrollmentCounts.computeIfAbsent(courseId, id -> new CourseEnrollmentCounts());
+    }
+
+    private int creditHoursOf(String courseId) {
+        return accountedCreditHours.getOrDefault(courseId, 0);
+    }
+
+    private void reaccountCourseCredits(String courseId, int creditHours) {
+        accountedCreditHours.compute(courseId, (id, previous) -> {
+            int previousHours = previous != null ? previous : 0;
+            if (previousHours != creditHours) {
+                Map<String, Enrollment> courseEnrollments = enrollmentsByCourse.get(courseId);
+                if (courseEnrollments != null) {
+                    for (Enrollment enrollment : courseEnrollments.values()) {
+                        totalsFor(enrollment.getStudentId()).reweigh(indexedStatusOf(enrollment),
+                                                                     previousHours, creditHours);
+                    }
+                }
+            }
+            return creditHours != 0 ? creditHours : null;
+        });
+    }
+
+    private static void addToIndex(Map<String, Map<String, Enrollment>> index, Map<String, Set<String>> keysByFold,
+                                   String key, Enrollment enrollment) {
+        // Updated under the bucket's entry lock so a concurrent removal cannot drop a new bucket
+        index.compute(key, (k, bucket) -> {
+            Map<String, Enrollment> updated = bucket;
+            if (updated == null) {
+                addFoldedKey(keysByFold, k);
+                updated = new ConcurrentHashMap<>();
+            }
+            updated.put(enrollment.getEnrollmentId(), enrollment);
+            return updated;
+        });
+    }
+
+    private static void removeFromIndex(Map<String, Map<String, Enrollment>> index, Map<String, Set<String>> keysByFold,
+                                        String key, String enrollmentId) {
+        // Drop the bucket once it is empty so removed students/courses do not leak entries
+        index.computeIfPresent(key, (k, bucket) -> {
+            bucket.remove(enrollmentId);
+            if (bucket.isEmpty()) {
+                removeFoldedKey(keysByFold, k);
+                return null;
+            }
+            return bucket;
+        });
+    }
+
+    // Business logic methods
+    public int calculateStudentCredits(String studentId) {
+        StudentTotals totals = studentTotals.get(studentId);
+        return totals != null ? totals.getActiveCredits() : 0;
+    }
+
+    public double calculateStudentGPA(String studentId) {
+        StudentTotals totals = studentTotals.get(studentId);
+        return totals != null ? totals.getGPA() : 0.0;
+    }
+
+    /**
+     * Gets a course's enrollment counts by status in O(1), without visiting its enrollments.
+     * @param courseId The course ID
+     * @return The live counts; all zero if the course has no enrollments
+     */
+    public CourseEnrollmentCounts getCourseEnrollmentCounts(String courseId) {
+        return courseEnrollmentCounts.getOrDefault(courseId, CourseEnrollmentCounts.NONE);
+    }
+
+    /**
+     * Tells whether a course has a free seat, counting enrollments that are not withdrawn.
+     * @param courseId The course ID
+     * @return true if the course has no capacity limit or fewer active enrollments than seats
+     */
+    public boolean hasAvailableSeat(String courseId) {
+        Course course = courses.get(courseId);
+        return course == null || !course.hasCapacityLimit()
+                || getCourseEnrollmentCounts(courseId).getActive() < course.getCapacity();
     }
 
     public boolean canEnrollStudent(String studentId, String courseId) {
@@ -205,12 +983,11 @@ public class DataStore {
         }
 
         // Check if already enrolled
-        boolean alreadyEnrolled = enrollments.values().stream()
-                .anyMatch(enrollment -> enrollment.getStudentId().equals(studentId) 
-                                     && enrollment.getCourseId().equals(courseId) 
-                                     && enrollment.isActive());
+        if (isActivelyEnrolled(studentId, courseId)) {
+            return false;
+        }
 
-        if (alreadyEnrolled) {
+        if (!hasAvailableSeat(courseId)) {
             return false;
         }
 
@@ -225,6 +1002,28 @@ public class DataStore {
         instructors.clear();
         courses.clear();
         enrollments.clear();
+        enrollmentsByStudent.clear();
+        enrollmentsByCourse.clear();
+        activeEnrollmentsByKey.clear();
+        studentKeysByFold.clear();
+        courseKeysByFold.clear();
+        studentsByActive.values().forEach(Map::clear);
+        coursesByDepartment.values().forEach(Map::clear);
+        coursesBySemester.values().forEach(Map::clear);
+        coursesByActive.values().forEach(Map::clear);
+        studentNameIndex.clear();
+        studentEmailIndex.clear();
+        courseTitleIndex.clear();
+        courseDescriptionIndex.clear();
+        studentRegistrationIndex.clear();
+        studentGpaIndex.clear();
+        courseCodeIndex.clear();
+        studentTotals.clear();
+        accountedCreditHours.clear();
+        courseEnrollmentCounts.clear();
+        indexedStatuses.clear();
+        fireChange(DataChangeListener::dataCleared);
+        completeChange();
     }
 
     public Map<String, Integer> getDataCounts() {
@@ -239,4 +1038,80 @@ public class DataStore {
     public static int getMaxCreditsPerSemester() {
         return MAX_CREDITS_PER_SEMESTER;
     }
+
+    /**
+     * Composite key identifying a (student, course) pair.
+     */
+    private static final class EnrollmentKey {
+        private final String studentId;
+        private final String courseId;
+
+        EnrollmentKey(String studentId, String courseId) {
+            this.studentId = studentId;
+            this.courseId = courseId;
+        }
+
+        static EnrollmentKey of(Enrollment enrollment) {
+            return new EnrollmentKey(enrollment.getStudentId(), enrollment.getCourseId());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof EnrollmentKey)) return false;
+            EnrollmentKey other = (EnrollmentKey) o;
+            return studentId.equals(other.studentId) && courseId.equals(other.courseId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * studentId.hashCode() + courseId.hashCode();
+        }
+    }
+
+    /**
+     * Running credit load and GPA totals for one student.
+     * Quality points are kept in tenths so repeated add/remove stays exact.
+     */
+    private static final class StudentTotals {
+        private int activeCredits;
+        private long qualityPointTenths;
+        private int gradedCredits;
+
+        synchronized void apply(Enrollment enrollment, int creditHours, int sign) {
+            if (enrollment.isActive()) {
+                activeCredits += sign * creditHours;
+            }
+            if (enrollment.isCompleted() && enrollment.getLetterGrade() != null) {
+                qualityPointTenths += (long) sign * gradePointTenths(enrollment) * creditHours;
+                gradedCredits += sign * creditHours;
+            }
+        }
+
+        /**
+         * Swaps an enrollment's old status for its new one in a single step, so
+         * readers never see its credits missing while a grade is recorded.
+         */
+        synchronized void change(Enrollment before, Enrollment after, int creditHours) {
+            apply(before, creditHours, -1);
+            apply(after, creditHours, 1);
+        }
+
+        synchronized void reweigh(Enrollment enrollment, int oldCreditHours, int newCreditHours) {
+            apply(enrollment, oldCreditHours, -1);
+            apply(enrollment, newCreditHours, 1);
+        }
+
+        synchronized int getActiveCredits() {
+            return activeCredits;
+        }
+
+        synchronized double getGPA() {
+            return gradedCredits > 0 ? qualityPointTenths / 10.0 / gradedCredits : 0.0;
+        }
+
+        private static long gradePointTenths(Enrollment enrollment) {
+            return Math.round(enrollment.getLetterGrade().getGradePoints() * 10);
+        }
+    }
 }
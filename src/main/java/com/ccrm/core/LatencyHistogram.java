@@ -0,0 +1,160 @@
+package com.ccrm.core;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Call count and latency distribution of one operation, in nanoseconds.
+ *
+ * Buckets are log-linear like an HDR histogram: values below 128 get a bucket
+ * each, and every further power of two is split into 64 buckets, so a reported
+ * percentile is within 1/64 (about 1.6%) of the recorded value. Recording is
+ * one atomic increment plus two striped adders; no locks are taken.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKET_COUNT = SUB_BUCKET_COUNT / 2;
+    // Enough buckets for any non-negative long
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS + 1) * HALF_SUB_BUCKET_COUNT;
+
+    private final String name;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Records one call.
+     * @param nanos How long the call took
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        totalCount.increment();
+        totalNanos.add(value);
+        maxNanos.accumulate(value);
+    }
+
+    /**
+     * Records one call that started at the given System.nanoTime() reading.
+     * @param startNanos System.nanoTime() when the call started
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Copies the current state. Calls recorded during the copy may be partly
+     * included, e.g. in the count but not yet in a bucket.
+     * @param elapsedNanos Time the calls were recorded over, for throughput
+     * @return The copy
+     */
+    public Snapshot snapshot(long elapsedNanos) {
+        long[] bucketCounts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            bucketCounts[i] = counts.get(i);
+        }
+        return new Snapshot(name, bucketCounts, totalCount.sum(), totalNanos.sum(), maxNanos.get(), elapsedNanos);
+    }
+
+    void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+    }
+
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        // Shift that keeps the top SUB_BUCKET_BITS bits, which then lie in [64, 128)
+        int shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * HALF_SUB_BUCKET_COUNT + (int) (value >>> shift);
+    }
+
+    private static long highestValueIn(int bucket) {
+        if (bucket < SUB_BUCKET_COUNT) {
+            return bucket;
+        }
+        int shift = bucket / HALF_SUB_BUCKET_COUNT - 1;
+        long subBucket = bucket - (long) shift * HALF_SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * A point-in-time copy of a histogram.
+     */
+    public static class Snapshot {
+        private final String name;
+        private final long[] bucketCounts;
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long elapsedNanos;
+
+        Snapshot(String name, long[] bucketCounts, long count, long totalNanos, long maxNanos, long elapsedNanos) {
+            this.name = name;
+            this.bucketCounts = bucketCounts;
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public String getName() { return name; }
+        public long getCount() { return count; }
+        public long getTotalNanos() { return totalNanos; }
+        public long getMaxNanos() { return maxNanos; }
+
+        public double getMeanNanos() {
+            return count > 0 ? (double) totalNanos / count : 0.0;
+        }
+
+        /**
+         * Calls per second over the time the calls were recorded.
+         * @return Throughput, or 0 if no time has passed
+         */
+        public double getThroughput() {
+            return elapsedNanos > 0 ? count * 1e9 / elapsedNanos : 0.0;
+        }
+
+        /**
+         * The latency that the given share of calls did not exceed.
+         * @param percentile Between 0 and 100, e.g. 99.9
+         * @return The latency in nanoseconds, or 0 if nothing was recorded
+         */
+        public long getPercentileNanos(double percentile) {
+            long recorded = 0;
+            for (long bucketCount : bucketCounts) {
+                recorded += bucketCount;
+            }
+            if (recorded == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * recorded));
+            long seen = 0;
+            for (int i = 0; i < bucketCounts.length; i++) {
+                seen += bucketCounts[i];
+                if (seen >= rank) {
+                    // The bucket's upper bound, but never above the largest value seen
+                    return Math.min(highestValueIn(i), maxNanos);
+                }
+            }
+            return maxNanos;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.ccrm.core;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the latency histograms of hot operations, e.g. enrolling or
+ * importing a CSV file. Callers look a histogram up once, keep it in a static
+ * field and record into it on every call.
+ */
+public class MetricsRegistry {
+
+    private static volatile MetricsRegistry instance;
+    private static final Object lock = new Object();
+
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private volatile long startNanos = System.nanoTime();
+
+    private MetricsRegistry() {
+    }
+
+    public static MetricsRegistry getInstance() {
+        if (instance == null) {
+            synchronized (lock) {
+                if (instance == null) {
+                    instance = new MetricsRegistry();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Gets the histogram of an operation, creating it on first use.
+     * @param name The operation, e.g. "enrollment.enroll"
+     * @return The histogram
+     */
+    public LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, LatencyHistogram::new);
+    }
+
+    /**
+     * Copies every histogram that has recorded at least one call.
+     * @return The copies, by operation name
+     */
+    public List<LatencyHistogram.Snapshot> snapshot() {
+        long elapsedNanos = System.nanoTime() - startNanos;
+        List<LatencyHistogram.Snapshot> snapshots = new ArrayList<>();
+        for (LatencyHistogram histogram : histograms.values()) {
+            LatencyHistogram.Snapshot snapshot = histogram.snapshot(elapsedNanos);
+            if (snapshot.getCount() > 0) {
+                snapshots.add(snapshot);
+            }
+        }
+        snapshots.sort(Comparator.comparing(LatencyHistogram.Snapshot::getName));
+        return snapshots;
+    }
+
+    /**
+     * Clears every histogram and restarts the throughput clock.
+     */
+    public void reset() {
+        histograms.values().forEach(LatencyHistogram::reset);
+        startNanos = System.nanoTime();
+    }
+}
@@ -0,0 +1,156 @@
+package com.ccrm.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Predicate;
+
+/**
+ * Index of record IDs ordered by a key, for prefix and range queries in
+ * O(log n + k). Several records may share a key.
+ *
+ * Entries are (key, id) pairs in a skip list, so records sharing a key never
+ * contend on a shared bucket; bound markers sort before or after every ID of a
+ * key to express inclusive and exclusive ranges.
+ *
+ * @param <K> The key type
+ */
+public class SortedIndex<K extends Comparable<K>> {
+
+    // id -> key currently indexed for it
+    private final Map<String, K> indexedKeys = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Entry<K>> entries = new ConcurrentSkipListSet<>();
+
+    /**
+     * Indexes a record's key, replacing what was indexed for it before.
+     * @param id The record ID
+     * @param key The key, or null for none
+     */
+    public void put(String id, K key) {
+        // compute() serializes updates of one record, so entries always match indexedKeys
+        indexedKeys.compute(id, (recordId, previous) -> {
+            if (previous != null) {
+                if (previous.equals(key)) {
+                    return previous;
+                }
+                entries.remove(new Entry<>(previous, recordId, 0));
+            }
+            if (key == null) {
+                return null;
+            }
+            entries.add(new Entry<>(key, recordId, 0));
+            return key;
+        });
+    }
+
+    /**
+     * Removes a record from the index.
+     * @param id The record ID
+     */
+    public void remove(String id) {
+        indexedKeys.computeIfPresent(id, (recordId, previous) -> {
+            entries.remove(new Entry<>(previous, recordId, 0));
+            return null;
+        });
+    }
+
+    public void clear() {
+        indexedKeys.clear();
+        entries.clear();
+    }
+
+    /**
+     * Finds the records whose key lies in a range, in key order.
+     * @param from Lower bound, or null for none
+     * @param fromInclusive Whether the lower bound itself is included
+     * @param to Upper bound, or null for none
+     * @param toInclusive Whether the upper bound itself is included
+     * @return IDs of the records in range
+     */
+    public List<String> range(K from, boolean fromInclusive, K to, boolean toInclusive) {
+        Entry<K> low = from != null ? Entry.bound(from, !fromInclusive) : null;
+        Entry<K> high = to != null ? Entry.bound(to, toInclusive) : null;
+        NavigableSet<Entry<K>> range = entries;
+        if (low != null && high != null) {
+            if (low.compareTo(high) > 0) {
+                return new ArrayList<>();
+            }
+            range = entries.subSet(low, false, high, false);
+        } else if (low != null) {
+            range = entries.tailSet(low, false);
+        } else if (high != null) {
+            range = entries.headSet(high, false);
+        }
+        List<String> ids = new ArrayList<>();
+        for (Entry<K> entry : range) {
+            ids.add(entry.id);
+        }
+        return ids;
+    }
+
+    /**
+     * Finds the records from a key onwards, in key order, for as long as their
+     * keys satisfy a condition; e.g. a prefix starting at the prefix itself.
+     * @param from The first key to consider
+     * @param condition Keys are taken while this holds
+     * @return IDs of the records found
+     */
+    public List<String> scanFrom(K from, Predicate<K> condition) {
+        List<String> ids = new ArrayList<>();
+        for (Entry<K> entry : entries.tailSet(Entry.bound(from, false), false)) {
+            if (!condition.test(entry.key)) {
+                break;
+            }
+            ids.add(entry.id);
+        }
+        return ids;
+    }
+
+    /**
+     * A (key, id) pair, or a marker sorting before (-1) or after (+1) every id of a key.
+     */
+    private static final class Entry<K extends Comparable<K>> implements Comparable<Entry<K>> {
+        private final K key;
+        private final String id;
+        private final int marker;
+
+        Entry(K key, String id, int marker) {
+            this.key = key;
+            this.id = id;
+            this.marker = marker;
+        }
+
+        static <K extends Comparable<K>> Entry<K> bound(K key, boolean afterKey) {
+            return new Entry<>(key, null, afterKey ? 1 : -1);
+        }
+
+        @Override
+        public int compareTo(Entry<K> other) {
+            int byKey = key.compareTo(other.key);
+            if (byKey != 0) {
+                return byKey;
+            }
+            if (marker != 0 || other.marker != 0) {
+                return Integer.compare(marker, other.marker);
+            }
+            return id.compareTo(other.id);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Entry)) return false;
+            Entry<?> other = (Entry<?>) o;
+            return marker == other.marker && key.equals(other.key)
+                    && (id == null ? other.id == null : id.equals(other.id));
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * key.hashCode() + (id != null ? id.hashCode() : marker);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.ccrm.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of the three-character substrings of a text field, for case-insensitive
+ * substring search. Each record ID is listed under every trigram of its
+ * lowercased text; a search intersects the lists of the fragment's trigrams.
+ *
+ * Candidates are a superset of the records whose lowercased text contains the
+ * lowercased fragment, so callers still check each one. Text is lowercased with
+ * the default locale, the same way searches lowercase field values.
+ */
+public class TrigramIndex {
+
+    private static final int GRAM_LENGTH = 3;
+    // A fragment whose rarest trigram is in more than 1/4 of the records is left to a scan
+    private static final int UNSELECTIVE_FRACTION = 4;
+
+    // id -> lowercased text currently indexed for it
+    private final Map<String, String> indexedText = new ConcurrentHashMap<>();
+    // trigram -> ids whose text contains it
+    private final Map<Long, Set<String>> postings = new ConcurrentHashMap<>();
+
+    /**
+     * Indexes a record's text, replacing what was indexed for it before.
+     * @param id The record ID
+     * @param text The text, or null for none
+     */
+    public void put(String id, String text) {
+        String lower = text != null ? text.toLowerCase() : null;
+        // compute() serializes updates of one record, so its postings always match indexedText
+        indexedText.compute(id, (key, previous) -> {
+            if (previous != null) {
+                if (previous.equals(lower)) {
+                    return previous;
+                }
+                for (Long gram : grams(previous)) {
+                    removePosting(gram, key);
+                }
+            }
+            if (lower == null) {
+                return null;
+            }
+            for (Long gram : grams(lower)) {
+                addPosting(gram, key);
+            }
+            return lower;
+        });
+    }
+
+    /**
+     * Removes a record from the index.
+     * @param id The record ID
+     */
+    public void remove(String id) {
+        indexedText.computeIfPresent(id, (key, previous) -> {
+            for (Long gram : grams(previous)) {
+                removePosting(gram, key);
+            }
+            return null;
+        });
+    }
+
+    public void clear() {
+        indexedText.clear();
+        postings.clear();
+    }
+
+    /**
+     * Finds the records whose text may contain a fragment, ignoring case.
+     * @param fragment The text searched for
+     * @return IDs of the candidate records, or null if the index cannot narrow the
+     *         search (the fragment is shorter than a trigram, or too common)
+     */
+    public Set<String> candidates(String fragment) {
+        String lower = fragment.toLowerCase();
+        if (lower.length() < GRAM_LENGTH) {
+            return null;
+        }
+        List<Set<String>> lists = new ArrayList<>();
+        for (Long gram : grams(lower)) {
+            Set<String> ids = postings.get(gram);
+            if (ids == null) {
+                return Collections.emptySet();
+            }
+            lists.add(ids);
+        }
+        // Walk the shortest list and probe the others
+        lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+        if (lists.get(0).size() > indexedText.size() / UNSELECTIVE_FRACTION) {
+            // Most records share every trigram; probing them costs more than a scan
+            return null;
+        }
+        Set<String> result = new HashSet<>();
+        for (String id : lists.get(0)) {
+            boolean inAll = true;
+            for (int i = 1; i < lists.size() && inAll; i++) {
+                inAll = lists.get(i).contains(id);
+            }
+            if (inAll) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    private void addPosting(Long gram, String id) {
+        // Added under the gram's entry lock so a concurrent removal cannot drop a fresh list
+        postings.compute(gram, (g, ids) -> {
+            Set<String> updated = ids != null ? ids : ConcurrentHashMap.newKeySet();
+            updated.add(id);
+            return updated;
+        });
+    }
+
+    private void removePosting(Long gram, String id) {
+        postings.computeIfPresent(gram, (g, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private static Set<Long> grams(String text) {
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+        return grams;
+    }
+}
@@ -0,0 +1,654 @@
+package com.ccrm.core;
+
+import com.ccrm.model.*;
+import com.ccrm.interfaces.DataChangeListener;
+import com.ccrm.interfaces.Persistable;
+import com.ccrm.utils.RecordReader;
+import com.ccrm.utils.RecordWriter;
+import com.ccrm.utils.SnapshotUtils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Durable append-only log of every change made through the DataStore.
+ *
+ * Each change is appended as a full-state record (the saved student, course,
+ * enrollment, ... or the removed ID), so replaying a record twice is harmless
+ * and any suffix of the log can be replayed over a snapshot that already
+ * contains some of it. The log is split into segment files named after the
+ * sequence number of their first record:
+ * <pre>
+ *   record: payload length (4) | sequence number (8) | operation (1) | payload | CRC32 (4)
+ * </pre>
+ * Appends only copy the record into a staging buffer. A single flusher thread
+ * writes whatever has been staged and forces it to disk, so every writer that
+ * arrived while the previous fsync was running shares the next one (group
+ * commit). A change made through the DataStore returns once its record is durable.
+ */
+public class WriteAheadLog implements Persistable<WriteAheadLog.LogRecord>, DataChangeListener, AutoCloseable {
+
+    /**
+     * Kinds of log record.
+     */
+    public enum Operation {
+        PUT_STUDENT, REMOVE_STUDENT,
+        PUT_INSTRUCTOR, REMOVE_INSTRUCTOR,
+        PUT_COURSE, REMOVE_COURSE,
+        PUT_ENROLLMENT, REMOVE_ENROLLMENT,
+        CLEAR
+    }
+
+    /**
+     * One decoded log record. For PUT operations the value is the saved object;
+     * for REMOVE operations it is null and the key names the removed record.
+     */
+    public static class LogRecord {
+        private final long sequenceNumber;
+        private final Operation operation;
+        private final String key;
+        private final Object value;
+
+        public LogRecord(long sequenceNumber, Operation operation, String key, Object value) {
+            this.sequenceNumber = sequenceNumber;
+            this.operation = operation;
+            this.key = key;
+            this.value = value;
+        }
+
+        public long getSequenceNumber() { return sequenceNumber; }
+        public Operation getOperation() { return operation; }
+        public String getKey() { return key; }
+        public Object getValue() { return value; }
+
+        @Override
+        public String toString() {
+            return String.format("LogRecord[LSN: %d, Op: %s, Key: %s]", sequenceNumber, operation, key);
+        }
+    }
+
+    /**
+     * Work run by {@link #batch(BatchAction)}.
+     */
+    @FunctionalInterface
+    public interface BatchAction<T> {
+        T run() throws IOException;
+    }
+
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final long SEGMENT_SIZE = 64L * 1024 * 1024;
+    private static final int MAX_RECORD_SIZE = 16 * 1024 * 1024;
+    private static final int RECORD_OVERHEAD = 4 + 8 + 1 + 4;
+    private static final int STAGING_BUFFER_SIZE = 256 * 1024;
+    private static final int READ_BUFFER_SIZE = 1024 * 1024;
+    private static final String LISTING_HEADER = "SequenceNumber,Operation,Key";
+    private static final boolean WINDOWS = System.getProperty("os.name", "").startsWith("Windows");
+
+    private final DataStore dataStore;
+    private final Path directory;
+    private final Object lock = new Object();
+    private final Thread flusher;
+
+    // Guarded by lock
+    private RecordWriter staging = new RecordWriter(STAGING_BUFFER_SIZE);
+    private RecordWriter flushing = new RecordWriter(STAGING_BUFFER_SIZE);
+    private final RecordWriter payload = new RecordWriter(4096);
+    private final CRC32 crc = new CRC32();
+    private long lastSequenceNumber;
+    private long durableSequenceNumber;
+    private IOException failure;
+    private boolean closed;
+
+    // Only touched by the flusher thread (and close, after the flusher has stopped)
+    private FileChannel segment;
+
+    // Per thread: [0] sequence number of its last append, [1] open batch() depth
+    private final ThreadLocal<long[]> threadState = ThreadLocal.withInitial(() -> new long[2]);
+
+    /**
+     * Opens the log in a directory, creating it if needed. Nothing is logged
+     * until {@link #recover(long)} has replayed the existing records.
+     * @param dataStore The data store whose changes are logged
+     * @param directoryPath Directory holding the segment files
+     * @throws IOException if the directory cannot be created
+     */
+    public WriteAheadLog(DataStore dataStore, String directoryPath) throws IOException {
+        this.dataStore = dataStore;
+        this.directory = Paths.get(directoryPath);
+        Files.createDirectories(directory);
+        this.flusher = new Thread(this::flushLoop, "ccrm-wal-flusher");
+        this.flusher.setDaemon(true);
+    }
+
+    /**
+     * Replays every logged change after the given sequence number into the data
+     * store, then starts logging new changes. Call once, after loading the
+     * snapshot the log continues from.
+     * @param afterSequenceNumber The snapshot's log sequence number (0 for none)
+     * @return Number of records replayed
+     * @throws IOException if a segment cannot be read
+     */
+    public int recover(long afterSequenceNumber) throws IOException {
+        int replayed = 0;
+        long last = afterSequenceNumber;
+        for (Path segmentPath : listSegments()) {
+            List<LogRecord> records = loadFromFile(segmentPath.toString());
+            for (LogRecord record : records) {
+                if (record.getSequenceNumber() > afterSequenceNumber) {
+                    apply(record);
+                    replayed++;
+                }
+                last = Math.max(last, record.getSequenceNumber());
+            }
+            last = Math.max(last, firstSequenceNumberOf(segmentPath) - 1);
+        }
+        synchronized (lock) {
+            lastSequenceNumber = last;
+            durableSequenceNumber = last;
+        }
+        dataStore.addDataChangeListener(this);
+        flusher.start();
+        return replayed;
+    }
+
+    /**
+     * @return Sequence number of the last appended record
+     */
+    public long getLastSequenceNumber() {
+        synchronized (lock) {
+            return lastSequenceNumber;
+        }
+    }
+
+    /**
+     * @return Sequence number up to which every record is on disk
+     */
+    public long getDurableSequenceNumber() {
+        synchronized (lock) {
+            return durableSequenceNumber;
+        }
+    }
+
+    /**
+     * Runs a bulk change, such as a CSV import, without waiting for each of its
+     * records to reach the disk; the whole batch is made durable once at the end.
+     * @param action The work to run
+     * @return The action's result
+     * @throws IOException if the action or the final flush fails
+     */
+    public <T> T batch(BatchAction<T> action) throws IOException {
+        long[] state = threadState.get();
+        state[1]++;
+        T result;
+        try {
+            result = action.run();
+        } finally {
+            state[1]--;
+        }
+        if (state[1] == 0) {
+            awaitDurable(state[0]);
+        }
+        return result;
+    }
+
+    // DataChangeListener: append on the mutating thread, wait for the fsync in changeComplete()
+
+    @Override
+    public void studentSaved(Student student) {
+        append(Operation.PUT_STUDENT, out -> SnapshotUtils.writeStudent(out, student));
+    }
+
+    @Override
+    public void studentRemoved(String studentId) {
+        append(Operation.REMOVE_STUDENT, out -> out.putString(studentId));
+    }
+
+    @Override
+    public void instructorSaved(Instructor instructor) {
+        append(Operation.PUT_INSTRUCTOR, out -> SnapshotUtils.writeInstructor(out, instructor));
+    }
+
+    @Override
+    public void instructorRemoved(String instructorId) {
+        append(Operation.REMOVE_INSTRUCTOR, out -> out.putString(instructorId));
+    }
+
+    @Override
+    public void courseSaved(Course course) {
+        append(Operation.PUT_COURSE, out -> SnapshotUtils.writeCourse(out, course));
+    }
+
+    @Override
+    public void courseRemoved(String courseId) {
+        append(Operation.REMOVE_COURSE, out -> out.putString(courseId));
+    }
+
+    @Override
+    public void enrollmentSaved(Enrollment enrollment) {
+        append(Operation.PUT_ENROLLMENT, out -> SnapshotUtils.writeEnrollment(out, enrollment));
+    }
+
+    @Override
+    public void enrollmentRemoved(String enrollmentId) {
+        append(Operation.REMOVE_ENROLLMENT, out -> out.putString(enrollmentId));
+    }
+
+    @Override
+    public void dataCleared() {
+        append(Operation.CLEAR, out -> { });
+    }
+
+    @Override
+    public void changeComplete() {
+        long[] state = threadState.get();
+        if (state[1] == 0) {
+            try {
+                awaitDurable(state[0]);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface PayloadEncoder {
+        void encode(RecordWriter out) throws IOException;
+    }
+
+    private void append(Operation operation, PayloadEncoder encoder) {
+        synchronized (lock) {
+            if (closed) {
+                throw new IllegalStateException("Write-ahead log is closed");
+            }
+            try {
+                payload.reset();
+                encoder.encode(payload);
+                ByteBuffer body = payload.toByteBuffer();
+                long sequenceNumber = lastSequenceNumber + 1;
+
+                crc.reset();
+                ByteBuffer head = ByteBuffer.allocate(9).putLong(sequenceNumber).put((byte) operation.ordinal());
+                head.flip();
+                crc.update(head.duplicate());
+                crc.update(body.duplicate());
+
+                staging.putInt(body.remaining());
+                staging.putBytes(head);
+                staging.putBytes(body);
+                staging.putInt((int) crc.getValue());
+
+                lastSequenceNumber = sequenceNumber;
+                threadState.get()[0] = sequenceNumber;
+                lock.notifyAll();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void awaitDurable(long sequenceNumber) throws IOException {
+        synchronized (lock) {
+            while (durableSequenceNumber < sequenceNumber && failure == null) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for the write-ahead log", e);
+                }
+            }
+            if (durableSequenceNumber < sequenceNumber) {
+                throw new IOException("Write-ahead log failed: " + failure.getMessage(), failure);
+            }
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            RecordWriter batch;
+            long firstSequenceNumber;
+            long target;
+            synchronized (lock) {
+                while (staging.position() == 0 && !closed) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (staging.position() == 0) {
+                    return;
+                }
+                batch = staging;
+                staging = flushing;
+                flushing = batch;
+                firstSequenceNumber = durableSequenceNumber + 1;
+                target = lastSequenceNumber;
+            }
+
+            try {
+                if (segment == null || segment.size() >= SEGMENT_SIZE) {
+                    rollSegment(firstSequenceNumber);
+                }
+                ByteBuffer bytes = batch.toByteBuffer();
+                while (bytes.hasRemaining()) {
+                    segment.write(bytes);
+                }
+                segment.force(false);
+                batch.reset();
+                synchronized (lock) {
+                    durableSequenceNumber = target;
+                    lock.notifyAll();
+                }
+            } catch (IOException e) {
+                synchronized (lock) {
+                    failure = e;
+                    lock.notifyAll();
+                }
+                return;
+            }
+        }
+    }
+
+    private void rollSegment(long firstSequenceNumber) throws IOException {
+        if (segment != null) {
+            segment.close();
+        }
+        // A segment already carrying this name can only hold a torn write from
+        // before the last recovery (its valid records would have a lower number)
+        Path path = directory.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, firstSequenceNumber, SEGMENT_SUFFIX));
+        segment = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                   StandardOpenOption.TRUNCATE_EXISTING);
+        // Without this, a crash could lose the new file's directory entry and
+        // with it records already reported durable
+        forceDirectory();
+    }
+
+    /**
+     * Forces the log directory, so created and deleted segment files survive a
+     * crash. Windows cannot open a directory for this and makes the entries
+     * durable with the files themselves, so there it is skipped.
+     * @throws IOException if the directory cannot be forced
+     */
+    private void forceDirectory() throws IOException {
+        if (WINDOWS) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    private void apply(LogRecord record) {
+        switch (record.getOperation()) {
+            case PUT_STUDENT:
+                dataStore.addStudent((Student) record.getValue());
+                break;
+            case REMOVE_STUDENT:
+                dataStore.removeStudent(record.getKey());
+                break;
+            case PUT_INSTRUCTOR:
+                dataStore.addInstructor((Instructor) record.getValue());
+                break;
+            case REMOVE_INSTRUCTOR:
+                dataStore.removeInstructor(record.getKey());
+                break;
+            case PUT_COURSE:
+                dataStore.addCourse((Course) record.getValue());
+                break;
+            case REMOVE_COURSE:
+                dataStore.removeCourse(record.getKey());
+                break;
+            case PUT_ENROLLMENT:
+                dataStore.addEnrollment((Enrollment) record.getValue());
+                break;
+            case REMOVE_ENROLLMENT:
+                dataStore.removeEnrollment(record.getKey());
+                break;
+            case CLEAR:
+                dataStore.clearAllData();
+                break;
+        }
+    }
+
+    /**
+     * Deletes the segments whose records are all covered by a snapshot. The
+     * segment currently being written is always kept.
+     * @param coveredSequenceNumber Log sequence number the snapshot includes
+     * @return Number of segment files deleted
+     * @throws IOException if a segment cannot be deleted
+     */
+    public int truncate(long coveredSequenceNumber) throws IOException {
+        List<Path> segments = listSegments();
+        int deleted = 0;
+        // A segment ends right before the next one starts
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            if (firstSequenceNumberOf(segments.get(i + 1)) - 1 > coveredSequenceNumber) {
+                break;
+            }
+            Files.deleteIfExists(segments.get(i));
+            deleted++;
+        }
+        if (deleted > 0) {
+            forceDirectory();
+        }
+        return deleted;
+    }
+
+    /**
+     * Tells whether a directory holds any log segment, i.e. whether changes have
+     * ever been logged there.
+     * @param directoryPath Directory holding the segment files
+     * @return true if at least one segment file exists
+     * @throws IOException if the directory cannot be listed
+     */
+    public static boolean hasSegments(String directoryPath) throws IOException {
+        Path directory = Paths.get(directoryPath);
+        if (!Files.isDirectory(directory)) {
+            return false;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            return stream.iterator().hasNext();
+        }
+    }
+
+    List<Path> listSegments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(segments::add);
+        }
+        // Zero-padded sequence numbers sort in log order
+        segments.sort(null);
+        return segments;
+    }
+
+    static long firstSequenceNumberOf(Path segmentPath) {
+        String name = segmentPath.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * Writes a snapshot of the data store that the log can be replayed over.
+     * The snapshot is stamped with the last durable sequence number, read before
+     * the store is scanned, so no record it may be missing is skipped on replay.
+     * @param filePath Path of the snapshot file
+     * @throws IOException if the snapshot cannot be written
+     */
+    @Override
+    public void saveToFile(String filePath) throws IOException {
+        SnapshotUtils.saveSnapshot(dataStore, filePath, getDurableSequenceNumber());
+    }
+
+    /**
+     * Reads the valid records of one segment file. Reading stops at the first
+     * torn or corrupt record, which can only be the tail of an interrupted write.
+     * @param filePath Path of the segment file
+     * @return The records in log order
+     * @throws IOException if the file cannot be read
+     */
+    @Override
+    public List<LogRecord> loadFromFile(String filePath) throws IOException {
+        List<LogRecord> records = new ArrayList<>();
+        Operation[] operations = Operation.values();
+        CRC32 checksum = new CRC32();
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            RecordReader in = new RecordReader(channel, READ_BUFFER_SIZE);
+            long remaining = channel.size();
+            while (remaining >= RECORD_OVERHEAD) {
+                int length = in.getInt();
+                if (length < 0 || length > MAX_RECORD_SIZE || length > remaining - RECORD_OVERHEAD) {
+                    break;
+                }
+                long sequenceNumber = in.getLong();
+                int ordinal = in.getByte();
+                byte[] body = new byte[length];
+                in.getBytes(body);
+                int storedCrc = in.getInt();
+
+                checksum.reset();
+                ByteBuffer head = ByteBuffer.allocate(9).putLong(sequenceNumber).put((byte) ordinal);
+                head.flip();
+                checksum.update(head);
+                checksum.update(body);
+                if ((int) checksum.getValue() != storedCrc || ordinal < 0 || ordinal >= operations.length) {
+                    break;
+                }
+                records.add(decode(sequenceNumber, operations[ordinal], new RecordReader(ByteBuffer.wrap(body))));
+                remaining -= RECORD_OVERHEAD + length;
+            }
+        } catch (EOFException e) {
+            // Torn tail: keep the records read so far
+        }
+        return records;
+    }
+
+    private static LogRecord decode(long sequenceNumber, Operation operation, RecordReader in) throws IOException {
+        switch (operation) {
+            case PUT_STUDENT: {
+                Student student = SnapshotUtils.readStudent(in);
+                return new LogRecord(sequenceNumber, operation, student.getId(), student);
+            }
+            case PUT_INSTRUCTOR: {
+                Instructor instructor = SnapshotUtils.readInstructor(in);
+                return new LogRecord(sequenceNumber, operation, instructor.getId(), instructor);
+            }
+            case PUT_COURSE: {
+                // Records logged before courses had a capacity end after the description
+                Course course = SnapshotUtils.readCourse(in, false);
+                if (in.hasRemaining()) {
+                    course.setCapacity(in.getInt());
+                }
+                return new LogRecord(sequenceNumber, operation, course.getCourseId(), course);
+            }
+            case PUT_ENROLLMENT: {
+                Enrollment enrollment = SnapshotUtils.readEnrollment(in);
+                return new LogRecord(sequenceNumber, operation, enrollment.getEnrollmentId(), enrollment);
+            }
+            case CLEAR:
+                return new LogRecord(sequenceNumber, operation, null, null);
+            default:
+                return new LogRecord(sequenceNumber, operation, in.getString(), null);
+        }
+    }
+
+    /**
+     * Exports a readable listing of every record in the log (sequence number,
+     * operation, key) for inspection.
+     * @param filePath Path of the CSV file
+     * @throws IOException if the log cannot be read or the file written
+     */
+    @Override
+    public void exportToCSV(String filePath) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(filePath), StandardCharsets.UTF_8)) {
+            writer.write(LISTING_HEADER);
+            writer.newLine();
+            for (Path segmentPath : listSegments()) {
+                for (LogRecord record : loadFromFile(segmentPath.toString())) {
+                    writer.write(record.getSequenceNumber() + "," + record.getOperation() + ","
+                            + (record.getKey() != null ? record.getKey() : ""));
+                    writer.newLine();
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads back a listing written by {@link #exportToCSV}. The listing holds no
+     * record contents, so every returned record has a null value: it is for
+     * inspecting or comparing logs, not for replay.
+     * @param filePath Path of the CSV file
+     * @return The listed records, in file order
+     * @throws IOException if the file cannot be read or is not such a listing
+     */
+    @Override
+    public List<LogRecord> importFromCSV(String filePath) throws IOException {
+        List<LogRecord> records = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(filePath), StandardCharsets.UTF_8)) {
+            if (!LISTING_HEADER.equals(reader.readLine())) {
+                throw new IOException(filePath + ": not a write-ahead log listing");
+            }
+            String line;
+            int lineNumber = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isEmpty()) {
+                    continue;
+                }
+                // The key is last and written as is, so it keeps any commas
+                String[] fields = line.split(",", 3);
+                try {
+                    if (fields.length < 2) {
+                        throw new IllegalArgumentException("expected sequence number and operation");
+                    }
+                    String key = fields.length > 2 && !fields[2].isEmpty() ? fields[2] : null;
+                    records.add(new LogRecord(Long.parseLong(fields[0]), Operation.valueOf(fields[1]), key, null));
+                } catch (IllegalArgumentException e) {
+                    throw new IOException(filePath + ": invalid record at line " + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Stops logging, waits for staged records to reach the disk and closes the current segment.
+     * @throws IOException if the final flush fails
+     */
+    @Override
+    public void close() throws IOException {
+        dataStore.removeDataChangeListener(this);
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+        if (flusher.isAlive()) {
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (segment != null) {
+            segment.close();
+        }
+        synchronized (lock) {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+}
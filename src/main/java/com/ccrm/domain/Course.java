@@ -1,9 +1,11 @@
-package com.ccrm.domain;
+package com.ccrm.model;
 
 import com.ccrm.enums.Department;
 import com.ccrm.enums.Semester;
 
 public class Course {
+    public static final int UNLIMITED_CAPACITY = 0;
+
     private String courseId;
     private String courseCode;
     private String title;
@@ -13,6 +15,7 @@ public class Course {
     private Department department;
     private boolean isActive;
     private String description;
+    private int capacity;
 
     public Course(String courseId, String courseCode, String title, int creditHours, 
                   String instructorId, Semester semester, Department department) {
@@ -24,6 +27,7 @@ public class Course {
         this.semester = semester;
         this.department = department;
         this.isActive = true;
+        this.capacity = UNLIMITED_CAPACITY;
     }
 
     // Getters and setters demonstrating encapsulation
@@ -99,9 +103,25 @@ public class Course {
         this.description = description;
     }
 
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    public boolean hasCapacityLimit() {
+        return capacity != UNLIMITED_CAPACITY;
+    }
+
     @Override
     public String toString() {
-        return String.format("Course[ID: %s, Code: %s, Title: %s, Credits: %d, Dept: %s, Semester: %s, Active: %s]", 
-                           courseId, courseCode, title, creditHours, department, semester, isActive);
+        return String.format("Course[ID: %s, Code: %s, Title: %s, Credits: %d, Dept: %s, Semester: %s, Capacity: %s, Active: %s]", 
+                           courseId, courseCode, title, creditHours, department, semester,
+                           hasCapacityLimit() ? String.valueOf(capacity) : "unlimited", isActive);
     }
 }
@@ -0,0 +1,37 @@
+package com.ccrm.interfaces;
+
+import com.ccrm.model.Course;
+import com.ccrm.model.Enrollment;
+import com.ccrm.model.Instructor;
+import com.ccrm.model.Student;
+
+/**
+ * Receives every change made through the DataStore.
+ * Change callbacks run on the mutating thread, possibly while the DataStore
+ * holds the lock of the changed record, so they must not block. Anything that
+ * may wait (e.g. for a disk flush) belongs in changeComplete(), which runs once
+ * the change is fully applied and no lock is held. Changes made inside
+ * DataStore.deferCompletion() get a single changeComplete() when it returns.
+ */
+public interface DataChangeListener {
+
+    default void studentSaved(Student student) {}
+
+    default void studentRemoved(String studentId) {}
+
+    default void instructorSaved(Instructor instructor) {}
+
+    default void instructorRemoved(String instructorId) {}
+
+    default void courseSaved(Course course) {}
+
+    default void courseRemoved(String courseId) {}
+
+    default void enrollmentSaved(Enrollment enrollment) {}
+
+    default void enrollmentRemoved(String enrollmentId) {}
+
+    default void dataCleared() {}
+
+    default void changeComplete() {}
+}
@@ -1,5 +1,8 @@
 package com.ccrm.interfaces;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 
@@ -10,6 +13,14 @@ public interface Searchable<T> {
 
     List<T> filter(Predicate<T> predicate);
 
+    /**
+     * Runs a composed query. Indexed conditions narrow the records scanned;
+     * every condition is still checked on each record returned.
+     * @param query The query to run
+     * @return The matching records, sorted and paged as the query asks
+     */
+    List<T> search(Query query);
+
     class SearchCriteria {
         private String field;
         private String value;
@@ -26,6 +37,117 @@ public interface Searchable<T> {
         public SearchOperator getOperator() { return operator; }
     }
 
+    /**
+     * A filter over records: one SearchCriteria, or AND / OR / NOT of other conditions.
+     */
+    class Condition {
+        public enum Type {
+            CRITERIA, AND, OR, NOT
+        }
+
+        private final Type type;
+        private final SearchCriteria criteria;
+        private final List<Condition> operands;
+
+        private Condition(Type type, SearchCriteria criteria, List<Condition> operands) {
+            this.type = type;
+            this.criteria = criteria;
+            this.operands = operands;
+        }
+
+        public static Condition where(SearchCriteria criteria) {
+            return new Condition(Type.CRITERIA, criteria, Collections.emptyList());
+        }
+
+        public static Condition where(String field, SearchOperator operator, String value) {
+            return where(new SearchCriteria(field, value, operator));
+        }
+
+        public static Condition and(Condition... operands) {
+            return new Condition(Type.AND, null, Collections.unmodifiableList(new ArrayList<>(Arrays.asList(operands))));
+        }
+
+        public static Condition or(Condition... operands) {
+            return new Condition(Type.OR, null, Collections.unmodifiableList(new ArrayList<>(Arrays.asList(operands))));
+        }
+
+        public static Condition not(Condition operand) {
+            return new Condition(Type.NOT, null, Collections.singletonList(operand));
+        }
+
+        public Condition and(Condition other) {
+            return and(this, other);
+        }
+
+        public Condition or(Condition other) {
+            return or(this, other);
+        }
+
+        public Type getType() { return type; }
+        public SearchCriteria getCriteria() { return criteria; }
+        public List<Condition> getOperands() { return operands; }
+    }
+
+    /**
+     * A condition plus the order and page of results wanted.
+     * Without a sort field the order of results is unspecified.
+     */
+    class Query {
+        private final Condition condition;
+        private String sortField;
+        private boolean descending;
+        private int offset;
+        private int limit = -1;
+
+        /**
+         * @param condition The condition records must meet, or null for all records
+         */
+        public Query(Condition condition) {
+            this.condition = condition;
+        }
+
+        public static Query where(Condition condition) {
+            return new Query(condition);
+        }
+
+        public static Query all() {
+            return new Query(null);
+        }
+
+        public Query sortBy(String field) {
+            return sortBy(field, false);
+        }
+
+        public Query sortBy(String field, boolean descending) {
+            this.sortField = field;
+            this.descending = descending;
+            return this;
+        }
+
+        public Query offset(int offset) {
+            if (offset < 0) {
+                throw new IllegalArgumentException("Offset cannot be negative: " + offset);
+            }
+            this.offset = offset;
+            return this;
+        }
+
+        public Query limit(int limit) {
+            if (limit < 0) {
+                throw new IllegalArgumentException("Limit cannot be negative: " + limit);
+            }
+            this.limit = limit;
+            return this;
+        }
+
+        public Condition getCondition() { return condition; }
+        public String getSortField() { return sortField; }
+        public boolean isDescending() { return descending; }
+        public int getOffset() { return offset; }
+        public int getLimit() { return limit; }
+        public boolean hasLimit() { return limit >= 0; }
+    }
+
     enum SearchOperator {
         EQUALS, CONTAINS, STARTS_WITH, ENDS_WITH, GREATER_THAN, LESS_THAN
     }
@@ -1,17 +1,46 @@
 package com.ccrm.services;
 
 import com.ccrm.core.DataStore;
+import com.ccrm.core.LatencyHistogram;
+import com.ccrm.core.MetricsRegistry;
 import com.ccrm.model.Course;
 import com.ccrm.exceptions.CourseNotFoundException;
 import com.ccrm.interfaces.Searchable;
 import com.ccrm.interfaces.Searchable.SearchCriteria;
 import com.ccrm.interfaces.Searchable.Predicate;
+import com.ccrm.interfaces.Searchable.Query;
+import com.ccrm.interfaces.Searchable.Condition;
 import com.ccrm.enums.Department;
 import com.ccrm.enums.Semester;
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
 public class CourseService implements Searchable<Course> {
+    private static final CriteriaCompiler<Course> CRITERIA = new CriteriaCompiler<Course>()
+            .text(Course::getCourseId, "courseid", "id")
+            .text(Course::getCourseCode, "coursecode", "code")
+            .text(Course::getTitle, "title")
+            .text(Course::getInstructorId, "instructorid", "instructor")
+            .enumeration(Department.class, Course::getDepartment, "department")
+            .enumeration(Semester.class, Course::getSemester, "semester")
+            .flag(Course::isActive, "active")
+            .integer(Course::getCreditHours, "credits", "credithours")
+            .text(course -> course.getDescription() != null ? course.getDescription() : "", "description")
+            .enumIndex(Department.class, department -> DataStore.getInstance().viewCoursesByDepartment(department),
+                       "department")
+            .enumIndex(Semester.class, semester -> DataStore.getInstance().viewCoursesBySemester(semester), "semester")
+            .flagIndex(active -> DataStore.getInstance().viewCoursesByActive(active), "active")
+            .fragmentIndex(fragment -> DataStore.getInstance().findCoursesByTitleFragment(fragment), "title")
+            .prefixIndex(prefix -> DataStore.getInstance().findCoursesByCodePrefix(prefix), "coursecode", "code")
+            .fragmentIndex(fragment -> DataStore.getInstance().findCoursesByDescriptionFragment(fragment),
+                           "description");
+    private static final MetricsRegistry METRICS = MetricsRegistry.getInstance();
+    private static final LatencyHistogram SEARCH_BY_FIELD_LATENCY = METRICS.histogram("course.searchByField");
+    private static final LatencyHistogram SEARCH_BY_CRITERIA_LATENCY = METRICS.histogram("course.searchByCriteria");
+    private static final LatencyHistogram FILTER_LATENCY = METRICS.histogram("course.filter");
+    private static final LatencyHistogram SEARCH_LATENCY = METRICS.histogram("course.search");
+
     private final DataStore dataStore;
 
     public CourseService() {
@@ -50,6 +79,7 @@ public class CourseService implements Searchable<Course> {
     public void deactivateCourse(String courseId) throws CourseNotFoundException {
         Course course = getCourseById(courseId);
         course.setActive(false);
+        dataStore.addCourse(course); // Save changes
     }
 
     public List<Course> getCoursesByDepartment(Department department) {
@@ -68,119 +98,97 @@ public class CourseService implements Searchable<Course> {
     }
 
     public int getEnrollmentCount(String courseId) {
-        return dataStore.getEnrollmentsByCourse(courseId).size();
+        return dataStore.getCourseEnrollmentCounts(courseId).getTotal();
     }
 
    
     public boolean hasAvailableSeats(String courseId, int maxCapacity) {
-        int currentEnrollments = getEnrollmentCount(courseId);
-        return currentEnrollments < maxCapacity;
+        // Withdrawn enrollments free their seat
+        int takenSeats = dataStore.getCourseEnrollmentCounts(courseId).getActive();
+        return takenSeats < maxCapacity;
+    }
+
+    /**
+     * Tells whether a course has a free seat under its own capacity.
+     * @param courseId The course ID
+     * @return true if the course has no capacity limit or a seat is free
+     */
+    public boolean hasAvailableSeats(String courseId) {
+        return dataStore.hasAvailableSeat(courseId);
     }
 
     // Searchable interface implementation
     @Override
     public List<Course> searchByField(String field, String value) {
-        return dataStore.getAllCourses().stream()
-                .filter(course -> {
-                    switch (field.toLowerCase()) {
-                        case "courseid":
-                        case "id":
-                            return course.getCourseId().toLowerCase().contains(value.toLowerCase());
-                        case "coursecode":
-                        case "code":
-                            return course.getCourseCode().toLowerCase().contains(value.toLowerCase());
-                        case "title":
-                            return course.getTitle().toLowerCase().contains(value.toLowerCase());
-                        case "instructorid":
-                        case "instructor":
-                            return course.getInstructorId().toLowerCase().contains(value.toLowerCase());
-                        case "department":
-                            return course.getDepartment().name().toLowerCase().contains(value.toLowerCase());
-                        case "semester":
-                            return course.getSemester().name().toLowerCase().contains(value.toLowerCase());
-                        case "active":
-                            return String.valueOf(course.isActive()).equalsIgnoreCase(value);
-                        case "credits":
-                        case "credithours":
-                            return String.valueOf(course.getCreditHours()).equals(value);
-                        default:
-                            return false;
-                    }
-                })
-                .collect(Collectors.toList());
+        long start = System.nanoTime();
+        try {
+            String key = field.toLowerCase();
+            String needle = value.toLowerCase();
+            Collection<Course> candidates = key.equals("title") ? dataStore.findCoursesByTitleFragment(value) : null;
+            return (candidates != null ? candidates : dataStore.getAllCourses()).stream()
+                    .filter(course -> {
+                        switch (key) {
+                            case "courseid":
+                            case "id":
+                                return course.getCourseId().toLowerCase().contains(needle);
+                            case "coursecode":
+                            case "code":
+                                return course.getCourseCode().toLowerCase().contains(needle);
+                            case "title":
+                                return course.getTitle().toLowerCase().contains(needle);
+                            case "instructorid":
+                            case "instructor":
+                                return course.getInstructorId().toLowerCase().contains(needle);
+                            case "department":
+                                return course.getDepartment().name().toLowerCase().contains(needle);
+                            case "semester":
+                                return course.getSemester().name().toLowerCase().contains(needle);
+                            case "active":
+                                return String.valueOf(course.isActive()).equalsIgnoreCase(value);
+                            case "credits":
+                            case "credithours":
+                                return String.valueOf(course.getCreditHours()).equals(value);
+                            default:
+                                return false;
+                        }
+                    })
+                    .collect(Collectors.toList());
+        } finally {
+            SEARCH_BY_FIELD_LATENCY.recordSince(start);
+        }
     }
 
     @Override
     public List<Course> searchByCriteria(SearchCriteria criteria) {
-        return dataStore.getAllCourses().stream()
-                .filter(course -> {
-                    String fieldValue = getFieldValue(course, criteria.getField());
-                    return matchesCriteria(fieldValue, criteria.getValue(), criteria.getOperator());
-                })
-                .collect(Collectors.toList());
+        long start = System.nanoTime();
+        try {
+            // Compiled once and planned like a one-condition query, so indexed fields skip the scan;
+            // run directly rather than through search() so the call is timed once
+            return CRITERIA.search(Query.where(Condition.where(criteria)), dataStore::streamCourses);
+        } finally {
+            SEARCH_BY_CRITERIA_LATENCY.recordSince(start);
+        }
     }
 
     @Override
     public List<Course> filter(Predicate<Course> predicate) {
-        return dataStore.getAllCourses().stream()
-                .filter(predicate::test)
-                .collect(Collectors.toList());
-    }
-
-   
-    private String getFieldValue(Course course, String field) {
-        switch (field.toLowerCase()) {
-            case "courseid":
-            case "id":
-                return course.getCourseId();
-            case "coursecode":
-            case "code":
-                return course.getCourseCode();
-            case "title":
-                return course.getTitle();
-            case "instructorid":
-            case "instructor":
-                return course.getInstructorId();
-            case "department":
-                return course.getDepartment().name();
-            case "semester":
-                return course.getSemester().name();
-            case "active":
-                return String.valueOf(course.isActive());
-            case "credits":
-            case "credithours":
-                return String.valueOf(course.getCreditHours());
-            case "description":
-                return course.getDescription() != null ? course.getDescription() : "";
-            default:
-                return "";
+        long start = System.nanoTime();
+        try {
+            return dataStore.getAllCourses().stream()
+                    .filter(predicate::test)
+                    .collect(Collectors.toList());
+        } finally {
+            FILTER_LATENCY.recordSince(start);
         }
     }
 
-    private boolean matchesCriteria(String fieldValue, String searchValue, Searchable.SearchOperator operator) {
-        switch (operator) {
-            case EQUALS:
-                return fieldValue.equalsIgnoreCase(searchValue);
-            case CONTAINS:
-                return fieldValue.toLowerCase().contains(searchValue.toLowerCase());
-            case STARTS_WITH:
-                return fieldValue.toLowerCase().startsWith(searchValue.toLowerCase());
-            case ENDS_WITH:
-                return fieldValue.toLowerCase().endsWith(searchValue.toLowerCase());
-            case GREATER_THAN:
-                try {
-                    return Double.parseDouble(fieldValue) > Double.parseDouble(searchValue);
-                } catch (NumberFormatException e) {
-                    return false;
-                }
-            case LESS_THAN:
-                try {
-                    return Double.parseDouble(fieldValue) < Double.parseDouble(searchValue);
-                } catch (NumberFormatException e) {
-                    return false;
-                }
-            default:
-                return false;
+    @Override
+    public List<Course> search(Query query) {
+        long start = System.nanoTime();
+        try {
+            return CRITERIA.search(query, dataStore::streamCourses);
+        } finally {
+            SEARCH_LATENCY.recordSince(start);
         }
     }
 }
@@ -0,0 +1,621 @@
+package com.ccrm.services;
+
+import com.ccrm.interfaces.Searchable;
+import com.ccrm.interfaces.Searchable.Condition;
+import com.ccrm.interfaces.Searchable.Query;
+import com.ccrm.interfaces.Searchable.SearchCriteria;
+import com.ccrm.interfaces.Searchable.SearchOperator;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compiles a SearchCriteria into a predicate once, instead of interpreting it
+ * for every row. The field name is resolved to a typed accessor, the search
+ * value is lowercased and parsed a single time, and boolean and enum fields are
+ * reduced to a lookup of the values that match.
+ *
+ * A compiled predicate accepts exactly the rows the per-row string comparison
+ * accepts: field values are still compared through their String form, with an
+ * unknown field behaving like an empty string.
+ *
+ * Composed queries are planned against the registered indexes: the smallest
+ * candidate set any index offers for the condition is scanned instead of every
+ * record, and the full condition is checked on each candidate. An index only
+ * has to return a superset of the records matching its criteria.
+ *
+ * @param <T> The type of record searched
+ */
+public class CriteriaCompiler<T> {
+
+    private static final String ASCII_UPPER = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+    private static final String ASCII_LOWER = "abcdefghijklmnopqrstuvwxyz";
+
+    private final Map<String, Field<T>> fields = new HashMap<>();
+    private final Map<String, Index<T>> indexes = new HashMap<>();
+
+    /**
+     * Looks up the records that may match one criteria.
+     * @param <T> The type of record searched
+     */
+    @FunctionalInterface
+    public interface Index<T> {
+        /**
+         * @param criteria The criteria on the indexed field
+         * @return A superset of the matching records, or null if the index cannot narrow them
+         */
+        Collection<T> candidates(SearchCriteria criteria);
+    }
+
+    /**
+     * Registers a text field.
+     * @param accessor Reads the field from a record
+     * @param names The field name and its aliases, in lower case
+     * @return This compiler
+     */
+    public CriteriaCompiler<T> text(Function<T, String> accessor, String... names) {
+        return register(new TextField<>(accessor), names);
+    }
+
+    /**
+     * Registers a numeric field whose String form is String.valueOf(double).
+     * @param accessor Reads the field from a record
+     * @param names The field name and its aliases, in lower case
+     * @return This compiler
+     */
+    public CriteriaCompiler<T> decimal(ToDoubleFunction<T> accessor, String... names) {
+        return register(new NumberField<>(accessor, false), names);
+    }
+
+    /**
+     * Registers a numeric field whose String form is String.valueOf(int).
+     * @param accessor Reads the field from a record
+     * @param names The field name and its aliases, in lower case
+     * @return This compiler
+     */
+    public CriteriaCompiler<T> integer(ToDoubleFunction<T> accessor, String... names) {
+        return register(new NumberField<>(accessor, true), names);
+    }
+
+    /**
+     * Registers a boolean field.
+     * @param accessor Reads the field from a record
+     * @param names The field name and its aliases, in lower case
+     * @return This compiler
+     */
+    public CriteriaCompiler<T> flag(Searchable.Predicate<T> accessor, String... names) {
+        return register(new FlagField<>(accessor), names);
+    }
+
+    /**
+     * Registers an enum field whose String form is the constant's name, or an
+     * empty string when the field is null.
+     * @param type The enum class
+     * @param accessor Reads the field from a record
+     * @param names The field name and its aliases, in lower case
+     * @return This compiler
+     */
+    public <E extends Enum<E>> CriteriaCompiler<T> enumeration(Class<E> type, Function<T, E> accessor,
+                                                              String... names) {
+        return register(new EnumField<>(type, accessor), names);
+    }
+
+    private CriteriaCompiler<T> register(Field<T> field, String... names) {
+        for (String name : names) {
+            fields.put(name, field);
+        }
+        return this;
+    }
+
+    /**
+     * Registers an index over a field.
+     * @param index Looks up candidates for a criteria on the field
+     * @param names The field name and its aliases, in lower case
+     * @return This compiler
+     */
+    public CriteriaCompiler<T> index(Index<T> index, String... names) {
+        for (String name : names) {
+            indexes.put(name, index);
+        }
+        return this;
+    }
+
+    /**
+     * Registers an index over an enum field, kept as one bucket per constant.
+     * Any operator can use it, as long as records with a null value cannot match.
+     * @param type The enum class
+     * @param bucket Returns the records holding a constant
+     * @param names The field name and its aliases, in lower case
+     * @return This compiler
+     */
+    public <E extends Enum<E>> CriteriaCompiler<T> enumIndex(Class<E> type, Function<E, Collection<T>> bucket,
+                                                            String... names) {
+        return index(criteria -> {
+            ValueMatcher matcher = new ValueMatcher(criteria.getValue(), criteria.getOperator());
+            if (matcher.matches("")) {
+                return null;
+            }
+            List<Collection<T>> buckets = new ArrayList<>();
+            for (E constant : type.getEnumConstants()) {
+                if (matcher.matches(constant.name())) {
+                    buckets.add(bucket.apply(constant));
+                }
+            }
+            return union(buckets);
+        }, names);
+    }
+
+    /**
+     * Registers an index over a boolean field, kept as one bucket per value.
+     * @param bucket Returns the records holding a value
+     * @param names The field name and its aliases, in lower case
+     * @return This compiler
+     */
+    public CriteriaCompiler<T> flagIndex(Function<Boolean, Collection<T>> bucket, String... names) {
+        return index(criteria -> {
+            ValueMatcher matcher = new ValueMatcher(criteria.getValue(), criteria.getOperator());
+            boolean whenTrue = matcher.matches("true");
+            boolean whenFalse = matcher.matches("false");
+            if (whenTrue && whenFalse) {
+                return null;
+            }
+            if (whenTrue || whenFalse) {
+                return bucket.apply(whenTrue);
+            }
+            return Collections.emptyList();
+        }, names);
+    }
+
+    /**
+     * Registers a substring index over a text field. CONTAINS, STARTS_WITH and
+     * ENDS_WITH can all use it, since each implies the field contains the value.
+     * @param lookup Returns the records whose text may contain a fragment ignoring
+     *               case, or null if the fragment cannot narrow them
+     * @param names The field name and its aliases, in lower case
+     * @return This compiler
+     */
+    public CriteriaCompiler<T> fragmentIndex(Function<String, Collection<T>> lookup, String... names) {
+        return index(criteria -> {
+            switch (criteria.getOperator()) {
+                case CONTAINS:
+                case STARTS_WITH:
+                case ENDS_WITH:
+                    return criteria.getValue() != null ? lookup.apply(criteria.getValue()) : null;
+                default:
+                    return null;
+            }
+        }, names);
+    }
+
+    /**
+     * Registers an ordered index over a text field, answering STARTS_WITH.
+     * @param lookup Returns the records whose text starts with a prefix ignoring case
+     * @param names The field name and its aliases, in lower case
+     * @return This compiler
+     */
+    public CriteriaCompiler<T> prefixIndex(Function<String, Collection<T>> lookup, String... names) {
+        return index(criteria -> criteria.getOperator() == SearchOperator.STARTS_WITH && criteria.getValue() != null
+                                 ? lookup.apply(criteria.getValue()) : null, names);
+    }
+
+    /**
+     * Registers an ordered index over a numeric field, answering GREATER_THAN and LESS_THAN.
+     * @param lookup Returns the records whose value lies strictly between two bounds,
+     *               either of which may be null for none
+     * @param names The field name and its aliases, in lower case
+     * @return This compiler
+     */
+    public CriteriaCompiler<T> rangeIndex(BiFunction<Double, Double, Collection<T>> lookup, String... names) {
+        return index(criteria -> {
+            ValueMatcher matcher = new ValueMatcher(criteria.getValue(), criteria.getOperator());
+            if (!matcher.isNumeric()) {
+                return null;
+            }
+            if (!matcher.hasNumber()) {
+                return Collections.emptyList();
+            }
+            return matcher.getOperator() == SearchOperator.GREATER_THAN
+                    ? lookup.apply(matcher.getNumber(), null) : lookup.apply(null, matcher.getNumber());
+        }, names);
+    }
+
+    /**
+     * Registers an index answering EQUALS on a key field.
+     * @param lookup Returns the records whose key equals the value ignoring case,
+     *               or null if it cannot tell
+     * @param names The field name and its aliases, in lower case
+     * @return This compiler
+     */
+    public CriteriaCompiler<T> keyIndex(Function<String, Collection<T>> lookup, String... names) {
+        return index(criteria -> criteria.getOperator() == SearchOperator.EQUALS && criteria.getValue() != null
+                                 ? lookup.apply(criteria.getValue()) : null, names);
+    }
+
+    /**
+     * Compiles the criteria into a predicate over records.
+     * @param criteria The criteria to compile
+     * @return A predicate accepting the records that match the criteria
+     */
+    public Searchable.Predicate<T> compile(SearchCriteria criteria) {
+        ValueMatcher matcher = new ValueMatcher(criteria.getValue(), criteria.getOperator());
+        Field<T> field = fields.get(criteria.getField().toLowerCase());
+        if (field == null) {
+            // Unknown fields read as an empty string
+            boolean matches = matcher.matches("");
+            return item -> matches;
+        }
+        return field.compile(matcher);
+    }
+
+    /**
+     * Compiles a composed condition into a predicate over records.
+     * @param condition The condition to compile, or null to accept every record
+     * @return A predicate accepting the records that meet the condition
+     */
+    public Searchable.Predicate<T> compile(Condition condition) {
+        if (condition == null) {
+            return item -> true;
+        }
+        switch (condition.getType()) {
+            case CRITERIA:
+                return compile(condition.getCriteria());
+            case AND: {
+                List<Searchable.Predicate<T>> operands = compileAll(condition.getOperands());
+                return item -> {
+                    for (Searchable.Predicate<T> operand : operands) {
+                        if (!operand.test(item)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                };
+            }
+            case OR: {
+                List<Searchable.Predicate<T>> operands = compileAll(condition.getOperands());
+                return item -> {
+                    for (Searchable.Predicate<T> operand : operands) {
+                        if (operand.test(item)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                };
+            }
+            case NOT: {
+                Searchable.Predicate<T> operand = compile(condition.getOperands().get(0));
+                return item -> !operand.test(item);
+            }
+            default:
+                throw new IllegalArgumentException("Unsupported condition: " + condition.getType());
+        }
+    }
+
+    private List<Searchable.Predicate<T>> compileAll(List<Condition> conditions) {
+        List<Searchable.Predicate<T>> compiled = new ArrayList<>(conditions.size());
+        for (Condition condition : conditions) {
+            compiled.add(compile(condition));
+        }
+        return compiled;
+    }
+
+    /**
+     * Plans and runs a query.
+     * @param query The query to run
+     * @param scan Streams every record, used when no index narrows the condition
+     * @return The matching records, sorted and paged as the query asks
+     */
+    public List<T> search(Query query, Supplier<Stream<T>> scan) {
+        Searchable.Predicate<T> predicate = compile(query.getCondition());
+        Comparator<T> order = query.getSortField() != null
+                ? comparator(query.getSortField(), query.isDescending()) : null;
+
+        Collection<T> candidates = query.getCondition() != null ? candidates(query.getCondition()) : null;
+        Stream<T> stream = (candidates != null ? candidates.stream() : scan.get()).filter(predicate::test);
+        if (order != null) {
+            stream = stream.sorted(order);
+        }
+        if (query.getOffset() > 0) {
+            stream = stream.skip(query.getOffset());
+        }
+        if (query.hasLimit()) {
+            stream = stream.limit(query.getLimit());
+        }
+        return stream.collect(Collectors.toList());
+    }
+
+    /**
+     * Picks the records to scan for a condition.
+     * @return A superset of the records meeting the condition, or null to scan everything
+     */
+    private Collection<T> candidates(Condition condition) {
+        switch (condition.getType()) {
+            case CRITERIA: {
+                Index<T> index = indexes.get(condition.getCriteria().getField().toLowerCase());
+                return index != null ? index.candidates(condition.getCriteria()) : null;
+            }
+            case AND: {
+                // Any operand's candidates cover the conjunction; take the most selective
+                Collection<T> best = null;
+                for (Condition operand : condition.getOperands()) {
+                    Collection<T> candidates = candidates(operand);
+                    if (candidates != null && (best == null || candidates.size() < best.size())) {
+                        best = candidates;
+                    }
+                }
+                return best;
+            }
+            case OR: {
+                // A disjunction is only narrowed if every branch is
+                List<Collection<T>> branches = new ArrayList<>();
+                for (Condition operand : condition.getOperands()) {
+                    Collection<T> candidates = candidates(operand);
+                    if (candidates == null) {
+                        return null;
+                    }
+                    branches.add(candidates);
+                }
+                return union(branches);
+            }
+            default:
+                return null;
+        }
+    }
+
+    private static <T> Collection<T> union(List<Collection<T>> collections) {
+        if (collections.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (collections.size() == 1) {
+            return collections.get(0);
+        }
+        Set<T> union = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Collection<T> collection : collections) {
+            union.addAll(collection);
+        }
+        return union;
+    }
+
+    /**
+     * Orders records by a registered field: text ignoring case, numbers and
+     * enums naturally, with missing values last.
+     * @param fieldName The field to sort by
+     * @param descending Whether to reverse the order
+     * @return The comparator
+     * @throws IllegalArgumentException if the field is unknown
+     */
+    public Comparator<T> comparator(String fieldName, boolean descending) {
+        Field<T> field = fields.get(fieldName.toLowerCase());
+        if (field == null) {
+            throw new IllegalArgumentException("Unknown sort field: " + fieldName);
+        }
+        return descending ? field.comparator().reversed() : field.comparator();
+    }
+
+    private interface Field<T> {
+        Searchable.Predicate<T> compile(ValueMatcher matcher);
+
+        Comparator<T> comparator();
+    }
+
+    private static class TextField<T> implements Field<T> {
+        private final Function<T, String> accessor;
+
+        TextField(Function<T, String> accessor) {
+            this.accessor = accessor;
+        }
+
+        @Override
+        public Searchable.Predicate<T> compile(ValueMatcher matcher) {
+            return item -> matcher.matches(accessor.apply(item));
+        }
+
+        @Override
+        public Comparator<T> comparator() {
+            return Comparator.comparing(accessor, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+        }
+    }
+
+    private static class NumberField<T> implements Field<T> {
+        private final ToDoubleFunction<T> accessor;
+        private final boolean integral;
+
+        NumberField(ToDoubleFunction<T> accessor, boolean integral) {
+            this.accessor = accessor;
+            this.integral = integral;
+        }
+
+        @Override
+        public Searchable.Predicate<T> compile(ValueMatcher matcher) {
+            if (!matcher.isNumeric()) {
+                return item -> matcher.matches(format(accessor.applyAsDouble(item)));
+            }
+            if (!matcher.hasNumber()) {
+                return item -> false;
+            }
+            // The String form of a number parses back to the same number
+            double bound = matcher.getNumber();
+            if (matcher.getOperator() == SearchOperator.GREATER_THAN) {
+                return item -> accessor.applyAsDouble(item) > bound;
+            }
+            return item -> accessor.applyAsDouble(item) < bound;
+        }
+
+        @Override
+        public Comparator<T> comparator() {
+            return Comparator.comparingDouble(accessor);
+        }
+
+        private String format(double value) {
+            return integral ? String.valueOf((int) value) : String.valueOf(value);
+        }
+    }
+
+    private static class FlagField<T> implements Field<T> {
+        private final Searchable.Predicate<T> accessor;
+
+        FlagField(Searchable.Predicate<T> accessor) {
+            this.accessor = accessor;
+        }
+
+        @Override
+        public Searchable.Predicate<T> compile(ValueMatcher matcher) {
+            boolean whenTrue = matcher.matches("true");
+            boolean whenFalse = matcher.matches("false");
+            if (whenTrue == whenFalse) {
+                return item -> whenTrue;
+            }
+            return whenTrue ? accessor : item -> !accessor.test(item);
+        }
+
+        @Override
+        public Comparator<T> comparator() {
+            return (a, b) -> Boolean.compare(accessor.test(a), accessor.test(b));
+        }
+    }
+
+    private static class EnumField<T, E extends Enum<E>> implements Field<T> {
+        private final Class<E> type;
+        private final Function<T, E> accessor;
+
+        EnumField(Class<E> type, Function<T, E> accessor) {
+            this.type = type;
+            this.accessor = accessor;
+        }
+
+        @Override
+        public Searchable.Predicate<T> compile(ValueMatcher matcher) {
+            Set<E> matching = EnumSet.noneOf(type);
+            for (E constant : type.getEnumConstants()) {
+                if (matcher.matches(constant.name())) {
+                    matching.add(constant);
+                }
+            }
+            boolean matchesNull = matcher.matches("");
+            return item -> {
+                E value = accessor.apply(item);
+                return value == null ? matchesNull : matching.contains(value);
+            };
+        }
+
+        @Override
+        public Comparator<T> comparator() {
+            return Comparator.comparing(accessor, Comparator.nullsLast(Comparator.<E>naturalOrder()));
+        }
+    }
+
+    /**
+     * Compares field values against a search value that was normalized once.
+     */
+    private static class ValueMatcher {
+        private final String value;
+        private final SearchOperator operator;
+        private final String lowerValue;
+        private final boolean asciiFastPath;
+        private final boolean hasNumber;
+        private final double number;
+
+        ValueMatcher(String value, SearchOperator operator) {
+            this.value = value;
+            this.operator = operator;
+            boolean numeric = operator == SearchOperator.GREATER_THAN || operator == SearchOperator.LESS_THAN;
+            // A null value matches nothing with EQUALS, as equalsIgnoreCase(null) is false
+            this.lowerValue = numeric || operator == SearchOperator.EQUALS || value == null ? value : value.toLowerCase();
+            // ASCII lowercasing depends on the default locale (e.g. Turkish dotless i)
+            this.asciiFastPath = !numeric && value != null && isAscii(lowerValue)
+                    && ASCII_UPPER.toLowerCase().equals(ASCII_LOWER);
+            double parsed = 0;
+            boolean parses = false;
+            if (numeric && value != null) {
+                try {
+                    parsed = Double.parseDouble(value);
+                    parses = true;
+                } catch (NumberFormatException e) {
+                    parses = false;
+                }
+            }
+            this.hasNumber = parses;
+            this.number = parsed;
+        }
+
+        SearchOperator getOperator() { return operator; }
+        boolean isNumeric() { return operator == SearchOperator.GREATER_THAN || operator == SearchOperator.LESS_THAN; }
+        boolean hasNumber() { return hasNumber; }
+        double getNumber() { return number; }
+
+        boolean matches(String fieldValue) {
+            switch (operator) {
+                case EQUALS:
+                    return fieldValue.equalsIgnoreCase(value);
+                case CONTAINS:
+                    if (asciiFastPath && isAscii(fieldValue)) {
+                        return indexOfIgnoreCase(fieldValue, lowerValue) >= 0;
+                    }
+                    return fieldValue.toLowerCase().contains(lowerValue);
+                case STARTS_WITH:
+                    if (asciiFastPath && isAscii(fieldValue)) {
+                        return fieldValue.regionMatches(true, 0, lowerValue, 0, lowerValue.length());
+                    }
+                    return fieldValue.toLowerCase().startsWith(lowerValue);
+                case ENDS_WITH:
+                    if (asciiFastPath && isAscii(fieldValue)) {
+                        int offset = fieldValue.length() - lowerValue.length();
+                        return offset >= 0 && fieldValue.regionMatches(true, offset, lowerValue, 0, lowerValue.length());
+                    }
+                    return fieldValue.toLowerCase().endsWith(lowerValue);
+                case GREATER_THAN:
+                case LESS_THAN:
+                    if (!hasNumber) {
+                        return false;
+                    }
+                    try {
+                        double parsed = Double.parseDouble(fieldValue);
+                        return operator == SearchOperator.GREATER_THAN ? parsed > number : parsed < number;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                default:
+                    return false;
+            }
+        }
+
+        private static int indexOfIgnoreCase(String text, String lowerNeedle) {
+            if (lowerNeedle.isEmpty()) {
+                return 0;
+            }
+            char first = lowerNeedle.charAt(0);
+            char firstUpper = Character.toUpperCase(first);
+            int last = text.length() - lowerNeedle.length();
+            for (int i = 0; i <= last; i++) {
+                char c = text.charAt(i);
+                if ((c == first || c == firstUpper)
+                        && text.regionMatches(true, i + 1, lowerNeedle, 1, lowerNeedle.length() - 1)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private static boolean isAscii(String text) {
+            for (int i = 0; i < text.length(); i++) {
+                if (text.charAt(i) >= 0x80) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -1,18 +1,44 @@
 package com.ccrm.services;
 
 import com.ccrm.core.DataStore;
+import com.ccrm.core.LatencyHistogram;
+import com.ccrm.core.MetricsRegistry;
 import com.ccrm.model.Enrollment;
 import com.ccrm.model.Student;
 import com.ccrm.model.Course;
+import com.ccrm.enums.Grade;
 import com.ccrm.exceptions.*;
 import com.ccrm.interfaces.Searchable;
 import com.ccrm.interfaces.Searchable.SearchCriteria;
 import com.ccrm.interfaces.Searchable.Predicate;
+import com.ccrm.interfaces.Searchable.Query;
+import com.ccrm.interfaces.Searchable.Condition;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 public class EnrollmentService implements Searchable<Enrollment> {
+    private static final CriteriaCompiler<Enrollment> CRITERIA = new CriteriaCompiler<Enrollment>()
+            .text(Enrollment::getEnrollmentId, "enrollmentid", "id")
+            .text(Enrollment::getStudentId, "studentid", "student")
+            .text(Enrollment::getCourseId, "courseid", "course")
+            .flag(Enrollment::isActive, "active")
+            .flag(Enrollment::isCompleted, "completed")
+            .enumeration(Grade.class, Enrollment::getLetterGrade, "grade")
+            .decimal(Enrollment::getNumericGrade, "numericgrade")
+            .keyIndex(studentId -> DataStore.getInstance().findEnrollmentsByStudentIgnoreCase(studentId),
+                      "studentid", "student")
+            .keyIndex(courseId -> DataStore.getInstance().findEnrollmentsByCourseIgnoreCase(courseId),
+                      "courseid", "course");
+    private static final MetricsRegistry METRICS = MetricsRegistry.getInstance();
+    private static final LatencyHistogram ENROLL_LATENCY = METRICS.histogram("enrollment.enroll");
+    private static final LatencyHistogram UNENROLL_LATENCY = METRICS.histogram("enrollment.unenroll");
+    private static final LatencyHistogram RECORD_GRADE_LATENCY = METRICS.histogram("enrollment.recordGrade");
+    private static final LatencyHistogram SEARCH_BY_FIELD_LATENCY = METRICS.histogram("enrollment.searchByField");
+    private static final LatencyHistogram SEARCH_BY_CRITERIA_LATENCY = METRICS.histogram("enrollment.searchByCriteria");
+    private static final LatencyHistogram FILTER_LATENCY = METRICS.histogram("enrollment.filter");
+    private static final LatencyHistogram SEARCH_LATENCY = METRICS.histogram("enrollment.search");
+
     private final DataStore dataStore;
 
     public EnrollmentService() {
@@ -20,113 +46,140 @@ public class EnrollmentService implements Searchable<Enrollment> {
     }
 
     
-    public Enrollment enrollStudent(String studentId, String courseId) 
+    public Enrollment enrollStudent(String studentId, String courseId)
             throws StudentNotFoundException, CourseNotFoundException, MaxCreditLimitExceededException {
-        
-        Student student = dataStore.getStudent(studentId);
-        if (student == null) {
-            throw new StudentNotFoundException(studentId);
-        }
-        
-        Course course = dataStore.getCourse(courseId);
-        if (course == null) {
-            throw new CourseNotFoundException(courseId);
-        }
-        
-        if (!student.isActive() || !course.isActive()) {
-            throw new IllegalStateException("Cannot enroll inactive student or in inactive course");
-        }
-        
-        // Check if already enrolled
-        boolean alreadyEnrolled = dataStore.getEnrollmentsByStudent(studentId).stream()
-                .anyMatch(enrollment -> enrollment.getCourseId().equals(courseId) && enrollment.isActive());
-        
-        if (alreadyEnrolled) {
-            throw new IllegalStateException("Student is already enrolled in this course");
-        }
-        
-        // Check credit limit
-        int currentCredits = dataStore.calculateStudentCredits(studentId);
-        if (currentCredits + course.getCreditHours() > DataStore.getMaxCreditsPerSemester()) {
-            throw new MaxCreditLimitExceededException(
-                currentCredits + course.getCreditHours(), 
-                DataStore.getMaxCreditsPerSemester()
-            );
+        long start = System.nanoTime();
+        try {
+            Student student = dataStore.getStudent(studentId);
+            if (student == null) {
+                throw new StudentNotFoundException(studentId);
+            }
+
+            Course course = dataStore.getCourse(courseId);
+            if (course == null) {
+                throw new CourseNotFoundException(courseId);
+            }
+
+            if (!student.isActive() || !course.isActive()) {
+                throw new IllegalStateException("Cannot enroll inactive student or in inactive course");
+            }
+
+            // Duplicate check, credit check and insert must be atomic per student,
+            // otherwise concurrent requests could both pass the checks. Waiting for
+            // the changes to be durable happens once, after the stripe is released,
+            // so students sharing the stripe do not queue behind the disk.
+            return dataStore.deferCompletion(() -> {
+                synchronized (dataStore.getStudentLock(studentId)) {
+                    // Check if already enrolled
+                    if (dataStore.isActivelyEnrolled(studentId, courseId)) {
+                        throw new IllegalStateException("Student is already enrolled in this course");
+                    }
+
+                    // Check credit limit
+                    int currentCredits = dataStore.calculateStudentCredits(studentId);
+                    if (currentCredits + course.getCreditHours() > DataStore.getMaxCreditsPerSemester()) {
+                        throw new MaxCreditLimitExceededException(
+                            currentCredits + course.getCreditHours(),
+                            DataStore.getMaxCreditsPerSemester()
+                        );
+                    }
+
+                    // Create enrollment
+                    String enrollmentId = UUID.randomUUID().toString();
+                    Enrollment enrollment = new Enrollment(enrollmentId, studentId, courseId);
+                    // The seat is reserved lock-free, as other students may be enrolling in the course at once
+                    if (!dataStore.addEnrollmentWithinCapacity(enrollment)) {
+                        throw new IllegalStateException("Course " + courseId + " is full");
+                    }
+
+                    student.enrollInCourse(courseId);
+                    dataStore.addStudent(student); // Save changes
+
+                    return enrollment;
+                }
+            });
+        } finally {
+            ENROLL_LATENCY.recordSince(start);
         }
-        
-        // Create enrollment
-        String enrollmentId = UUID.randomUUID().toString();
-        Enrollment enrollment = new Enrollment(enrollmentId, studentId, courseId);
-        dataStore.addEnrollment(enrollment);
-        
-      
-        student.enrollInCourse(courseId);
-        
-        return enrollment;
     }
 
     
-    public void unenrollStudent(String studentId, String courseId) 
+    public void unenrollStudent(String studentId, String courseId)
             throws StudentNotFoundException, CourseNotFoundException, EnrollmentNotFoundException {
-        
-        Student student = dataStore.getStudent(studentId);
-        if (student == null) {
-            throw new StudentNotFoundException(studentId);
-        }
-        
-        Course course = dataStore.getCourse(courseId);
-        if (course == null) {
-            throw new CourseNotFoundException(courseId);
-        }
-        
-        List<Enrollment> enrollments = dataStore.getEnrollmentsByStudent(studentId);
-        Enrollment enrollment = enrollments.stream()
-                .filter(e -> e.getCourseId().equals(courseId) && e.isActive())
-                .findFirst()
-                .orElse(null);
-        
-        if (enrollment == null) {
-            throw new EnrollmentNotFoundException("No active enrollment found for student " + studentId + " in course " + courseId);
+        long start = System.nanoTime();
+        try {
+            Student student = dataStore.getStudent(studentId);
+            if (student == null) {
+                throw new StudentNotFoundException(studentId);
+            }
+
+            Course course = dataStore.getCourse(courseId);
+            if (course == null) {
+                throw new CourseNotFoundException(courseId);
+            }
+
+            // Lookup and withdrawal hold the same stripe as enrollStudent, which
+            // also changes the student's course list
+            dataStore.deferCompletion(() -> {
+                synchronized (dataStore.getStudentLock(studentId)) {
+                    Enrollment enrollment = dataStore.getActiveEnrollment(studentId, courseId);
+
+                    if (enrollment == null) {
+                        throw new EnrollmentNotFoundException("No active enrollment found for student " + studentId + " in course " + courseId);
+                    }
+
+                    dataStore.withdrawEnrollment(enrollment);
+                    student.unenrollFromCourse(courseId);
+                    dataStore.addStudent(student); // Save changes
+                    return null;
+                }
+            });
+        } finally {
+            UNENROLL_LATENCY.recordSince(start);
         }
-        
-        enrollment.withdraw();
-        student.unenrollFromCourse(courseId);
     }
 
     
-    public void recordGrade(String studentId, String courseId, double numericGrade) 
-            throws StudentNotFoundException, CourseNotFoundException, 
+    public void recordGrade(String studentId, String courseId, double numericGrade)
+            throws StudentNotFoundException, CourseNotFoundException,
                    EnrollmentNotFoundException, InvalidGradeException {
-        
-        Student student = dataStore.getStudent(studentId);
-        if (student == null) {
-            throw new StudentNotFoundException(studentId);
-        }
-        
-        Course course = dataStore.getCourse(courseId);
-        if (course == null) {
-            throw new CourseNotFoundException(courseId);
-        }
-        
-        List<Enrollment> enrollments = dataStore.getEnrollmentsByStudent(studentId);
-        Enrollment enrollment = enrollments.stream()
-                .filter(e -> e.getCourseId().equals(courseId) && e.isActive())
-                .findFirst()
-                .orElse(null);
-        
-        if (enrollment == null) {
-            throw new EnrollmentNotFoundException("No active enrollment found for student " + studentId + " in course " + courseId);
-        }
-        
-        if (numericGrade < 0 || numericGrade > 100) {
-            throw new InvalidGradeException(numericGrade);
+        long start = System.nanoTime();
+        try {
+            Student student = dataStore.getStudent(studentId);
+            if (student == null) {
+                throw new StudentNotFoundException(studentId);
+            }
+
+            Course course = dataStore.getCourse(courseId);
+            if (course == null) {
+                throw new CourseNotFoundException(courseId);
+            }
+
+            // Grading and the GPA update hold the student's stripe, like enrollStudent
+            dataStore.deferCompletion(() -> {
+                synchronized (dataStore.getStudentLock(studentId)) {
+                    Enrollment enrollment = dataStore.getActiveEnrollment(studentId, courseId);
+
+                    if (enrollment == null) {
+                        throw new EnrollmentNotFoundException("No active enrollment found for student " + studentId + " in course " + courseId);
+                    }
+
+                    if (numericGrade < 0 || numericGrade > 100) {
+                        throw new InvalidGradeException(numericGrade);
+                    }
+
+                    dataStore.recordEnrollmentGrade(enrollment, numericGrade);
+
+                    // Update student's GPA
+                    double newGPA = dataStore.calculateStudentGPA(studentId);
+                    student.setCurrentGPA(newGPA);
+                    dataStore.addStudent(student); // Save changes
+                    return null;
+                }
+            });
+        } finally {
+            RECORD_GRADE_LATENCY.recordSince(start);
         }
-        
-        enrollment.recordGrade(numericGrade);
-        
-        // Update student's GPA
-        double newGPA = dataStore.calculateStudentGPA(studentId);
-        student.setCurrentGPA(newGPA);
     }
 
     
@@ -185,110 +238,70 @@ public class EnrollmentService implements Searchable<Enrollment> {
     // Searchable interface implementation
     @Override
     public List<Enrollment> searchByField(String field, String value) {
-        return dataStore.getAllEnrollments().stream()
-                .filter(enrollment -> {
-                    switch (field.toLowerCase()) {
-                        case "enrollmentid":
-                        case "id":
-                            return enrollment.getEnrollmentId().toLowerCase().contains(value.toLowerCase());
-                        case "studentid":
-                        case "student":
-                            return enrollment.getStudentId().toLowerCase().contains(value.toLowerCase());
-                        case "courseid":
-                        case "course":
-                            return enrollment.getCourseId().toLowerCase().contains(value.toLowerCase());
-                        case "active":
-                            return String.valueOf(enrollment.isActive()).equalsIgnoreCase(value);
-                        case "completed":
-                            return String.valueOf(enrollment.isCompleted()).equalsIgnoreCase(value);
-                        case "grade":
-                            return enrollment.getLetterGrade() != null && 
-                                   enrollment.getLetterGrade().name().toLowerCase().contains(value.toLowerCase());
-                        default:
-                            return false;
-                    }
-                })
-                .collect(Collectors.toList());
+        long start = System.nanoTime();
+        try {
+            String key = field.toLowerCase();
+            String needle = value.toLowerCase();
+            return dataStore.getAllEnrollments().stream()
+                    .filter(enrollment -> {
+                        switch (key) {
+                            case "enrollmentid":
+                            case "id":
+                                return enrollment.getEnrollmentId().toLowerCase().contains(needle);
+                            case "studentid":
+                            case "student":
+                                return enrollment.getStudentId().toLowerCase().contains(needle);
+                            case "courseid":
+                            case "course":
+                                return enrollment.getCourseId().toLowerCase().contains(needle);
+                            case "active":
+                                return String.valueOf(enrollment.isActive()).equalsIgnoreCase(value);
+                            case "completed":
+                                return String.valueOf(enrollment.isCompleted()).equalsIgnoreCase(value);
+                            case "grade":
+                                return enrollment.getLetterGrade() != null && 
+                                       enrollment.getLetterGrade().name().toLowerCase().contains(needle);
+                            default:
+                                return false;
+                        }
+                    })
+                    .collect(Collectors.toList());
+        } finally {
+            SEARCH_BY_FIELD_LATENCY.recordSince(start);
+        }
     }
 
     @Override
     public List<Enrollment> searchByCriteria(SearchCriteria criteria) {
-        return dataStore.getAllEnrollments().stream()
-                .filter(enrollment -> {
-                    String fieldValue = getFieldValue(enrollment, criteria.getField());
-                    return matchesCriteria(fieldValue, criteria.getValue(), criteria.getOperator());
-                })
-                .collect(Collectors.toList());
+        long start = System.nanoTime();
+        try {
+            // Compiled once and planned like a one-condition query, so indexed fields skip the scan;
+            // run directly rather than through search() so the call is timed once
+            return CRITERIA.search(Query.where(Condition.where(criteria)), dataStore::streamEnrollments);
+        } finally {
+            SEARCH_BY_CRITERIA_LATENCY.recordSince(start);
+        }
     }
 
     @Override
     public List<Enrollment> filter(Predicate<Enrollment> predicate) {
-        return dataStore.getAllEnrollments().stream()
-                .filter(predicate::test)
-                .collect(Collectors.toList());
-    }
-
-    /**
-     * Gets the value of a field from an enrollment object.
-     * @param enrollment The enrollment object
-     * @param field The field name
-     * @return The field value as string
-     */
-    private String getFieldValue(Enrollment enrollment, String field) {
-        switch (field.toLowerCase()) {
-            case "enrollmentid":
-            case "id":
-                return enrollment.getEnrollmentId();
-            case "studentid":
-            case "student":
-                return enrollment.getStudentId();
-            case "courseid":
-            case "course":
-                return enrollment.getCourseId();
-            case "active":
-                return String.valueOf(enrollment.isActive());
-            case "completed":
-                return String.valueOf(enrollment.isCompleted());
-            case "grade":
-                return enrollment.getLetterGrade() != null ? enrollment.getLetterGrade().name() : "";
-            case "numericgrade":
-                return String.valueOf(enrollment.getNumericGrade());
-            default:
-                return "";
+        long start = System.nanoTime();
+        try {
+            return dataStore.getAllEnrollments().stream()
+                    .filter(predicate::test)
+                    .collect(Collectors.toList());
+        } finally {
+            FILTER_LATENCY.recordSince(start);
         }
     }
 
-    /**
-     * Checks if a field value matches the criteria.
-     * @param fieldValue The field value
-     * @param searchValue The search value
-     * @param operator The search operator
-     * @return true if matches
-     */
-    private boolean matchesCriteria(String fieldValue, String searchValue, Searchable.SearchOperator operator) {
-        switch (operator) {
-            case EQUALS:
-                return fieldValue.equalsIgnoreCase(searchValue);
-            case CONTAINS:
-                return fieldValue.toLowerCase().contains(searchValue.toLowerCase());
-            case STARTS_WITH:
-                return fieldValue.toLowerCase().startsWith(searchValue.toLowerCase());
-            case ENDS_WITH:
-                return fieldValue.toLowerCase().endsWith(searchValue.toLowerCase());
-            case GREATER_THAN:
-                try {
-                    return Double.parseDouble(fieldValue) > Double.parseDouble(searchValue);
-                } catch (NumberFormatException e) {
-                    return false;
-                }
-            case LESS_THAN:
-                try {
-                    return Double.parseDouble(fieldValue) < Double.parseDouble(searchValue);
-                } catch (NumberFormatException e) {
-                    return false;
-                }
-            default:
-                return false;
+    @Override
+    public List<Enrollment> search(Query query) {
+        long start = System.nanoTime();
+        try {
+            return CRITERIA.search(query, dataStore::streamEnrollments);
+        } finally {
+            SEARCH_LATENCY.recordSince(start);
         }
     }
 }
@@ -1,15 +1,40 @@
 package com.ccrm.services;
 
 import com.ccrm.core.DataStore;
+import com.ccrm.core.LatencyHistogram;
+import com.ccrm.core.MetricsRegistry;
 import com.ccrm.model.Student;
 import com.ccrm.exceptions.StudentNotFoundException;
 import com.ccrm.interfaces.Searchable;
 import com.ccrm.interfaces.Searchable.SearchCriteria;
 import com.ccrm.interfaces.Searchable.Predicate;
+import com.ccrm.interfaces.Searchable.Query;
+import com.ccrm.interfaces.Searchable.Condition;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 
 public class StudentService implements Searchable<Student> {
+    private static final CriteriaCompiler<Student> CRITERIA = new CriteriaCompiler<Student>()
+            .text(Student::getId, "id")
+            .text(Student::getRegistrationNumber, "registrationnumber", "regno")
+            .text(Student::getFullName, "name", "fullname")
+            .text(Student::getEmail, "email")
+            .flag(Student::isActive, "active")
+            .decimal(Student::getCurrentGPA, "gpa")
+            .flagIndex(active -> DataStore.getInstance().viewStudentsByActive(active), "active")
+            .fragmentIndex(fragment -> DataStore.getInstance().findStudentsByNameFragment(fragment), "name", "fullname")
+            .fragmentIndex(fragment -> DataStore.getInstance().findStudentsByEmailFragment(fragment), "email")
+            .prefixIndex(prefix -> DataStore.getInstance().findStudentsByRegistrationPrefix(prefix),
+                         "registrationnumber", "regno")
+            .rangeIndex((above, below) -> DataStore.getInstance().findStudentsByGpaRange(above, below), "gpa");
+    private static final MetricsRegistry METRICS = MetricsRegistry.getInstance();
+    private static final LatencyHistogram SEARCH_BY_FIELD_LATENCY = METRICS.histogram("student.searchByField");
+    private static final LatencyHistogram SEARCH_BY_CRITERIA_LATENCY = METRICS.histogram("student.searchByCriteria");
+    private static final LatencyHistogram FILTER_LATENCY = METRICS.histogram("student.filter");
+    private static final LatencyHistogram SEARCH_LATENCY = METRICS.histogram("student.search");
+
     private final DataStore dataStore;
 
     public StudentService() {
@@ -39,6 +64,19 @@ public class StudentService implements Searchable<Student> {
         return dataStore.getActiveStudents();
     }
 
+    /**
+     * Lists the active students whose GPA is above a threshold, highest first,
+     * reading only that end of the GPA index.
+     * @param minimumGpa The GPA students must exceed
+     * @return The dean's list
+     */
+    public List<Student> getDeansList(double minimumGpa) {
+        return dataStore.findStudentsByGpaRange(minimumGpa, null).stream()
+                .filter(student -> student.isActive() && student.getCurrentGPA() > minimumGpa)
+                .sorted(Comparator.comparingDouble(Student::getCurrentGPA).reversed())
+                .collect(Collectors.toList());
+    }
+
     
     public Student updateStudent(Student student) throws StudentNotFoundException {
         Student existingStudent = getStudentById(student.getId());
@@ -49,6 +87,7 @@ public class StudentService implements Searchable<Student> {
     public void deactivateStudent(String studentId) throws StudentNotFoundException {
         Student student = getStudentById(studentId);
         student.setActive(false);
+        dataStore.addStudent(student); // Save changes
     }
 
     public double calculateStudentGPA(String studentId) throws StudentNotFoundException {
@@ -71,92 +110,76 @@ public class StudentService implements Searchable<Student> {
     
     @Override
     public List<Student> searchByField(String field, String value) {
-        return dataStore.getAllStudents().stream()
-                .filter(student -> {
-                    switch (field.toLowerCase()) {
-                        case "id":
-                            return student.getId().toLowerCase().contains(value.toLowerCase());
-                        case "registrationnumber":
-                        case "regno":
-                            return student.getRegistrationNumber().toLowerCase().contains(value.toLowerCase());
-                        case "name":
-                        case "fullname":
-                            return student.getFullName().toLowerCase().contains(value.toLowerCase());
-                        case "email":
-                            return student.getEmail().toLowerCase().contains(value.toLowerCase());
-                        case "active":
-                            return String.valueOf(student.isActive()).equalsIgnoreCase(value);
-                        default:
-                            return false;
-                    }
-                })
-                .collect(Collectors.toList());
+        long start = System.nanoTime();
+        try {
+            String key = field.toLowerCase();
+            String needle = value.toLowerCase();
+            Collection<Student> candidates = null;
+            switch (key) {
+                case "name":
+                case "fullname":
+                    candidates = dataStore.findStudentsByNameFragment(value);
+                    break;
+                case "email":
+                    candidates = dataStore.findStudentsByEmailFragment(value);
+                    break;
+            }
+            return (candidates != null ? candidates : dataStore.getAllStudents()).stream()
+                    .filter(student -> {
+                        switch (key) {
+                            case "id":
+                                return student.getId().toLowerCase().contains(needle);
+                            case "registrationnumber":
+                            case "regno":
+                                return student.getRegistrationNumber().toLowerCase().contains(needle);
+                            case "name":
+                            case "fullname":
+                                return student.getFullName().toLowerCase().contains(needle);
+                            case "email":
+                                return student.getEmail().toLowerCase().contains(needle);
+                            case "active":
+                                return String.valueOf(student.isActive()).equalsIgnoreCase(value);
+                            default:
+                                return false;
+                        }
+                    })
+                    .collect(Collectors.toList());
+        } finally {
+            SEARCH_BY_FIELD_LATENCY.recordSince(start);
+        }
     }
 
     @Override
     public List<Student> searchByCriteria(SearchCriteria criteria) {
-        return dataStore.getAllStudents().stream()
-                .filter(student -> {
-                    String fieldValue = getFieldValue(student, criteria.getField());
-                    return matchesCriteria(fieldValue, criteria.getValue(), criteria.getOperator());
-                })
-                .collect(Collectors.toList());
+        long start = System.nanoTime();
+        try {
+            // Compiled once and planned like a one-condition query, so indexed fields skip the scan;
+            // run directly rather than through search() so the call is timed once
+            return CRITERIA.search(Query.where(Condition.where(criteria)), dataStore::streamStudents);
+        } finally {
+            SEARCH_BY_CRITERIA_LATENCY.recordSince(start);
+        }
     }
 
     @Override
     public List<Student> filter(Predicate<Student> predicate) {
-        return dataStore.getAllStudents().stream()
-                .filter(predicate::test)
-                .collect(Collectors.toList());
-    }
-
-   
-    private String getFieldValue(Student student, String field) {
-        switch (field.toLowerCase()) {
-            case "id":
-                return student.getId();
-            case "registrationnumber":
-            case "regno":
-                return student.getRegistrationNumber();
-            case "name":
-            case "fullname":
-                return student.getFullName();
-            case "email":
-                return student.getEmail();
-            case "active":
-                return String.valueOf(student.isActive());
-            case "gpa":
-                return String.valueOf(student.getCurrentGPA());
-            default:
-                return "";
+        long start = System.nanoTime();
+        try {
+            return dataStore.getAllStudents().stream()
+                    .filter(predicate::test)
+                    .collect(Collectors.toList());
+        } finally {
+            FILTER_LATENCY.recordSince(start);
         }
     }
 
-    
-    private boolean matchesCriteria(String fieldValue, String searchValue, Searchable.SearchOperator operator) {
-        switch (operator) {
-            case EQUALS:
-                return fieldValue.equalsIgnoreCase(searchValue);
-            case CONTAINS:
-                return fieldValue.toLowerCase().contains(searchValue.toLowerCase());
-            case STARTS_WITH:
-                return fieldValue.toLowerCase().startsWith(searchValue.toLowerCase());
-            case ENDS_WITH:
-                return fieldValue.toLowerCase().endsWith(searchValue.toLowerCase());
-            case GREATER_THAN:
-                try {
-                    return Double.parseDouble(fieldValue) > Double.parseDouble(searchValue);
-                } catch (NumberFormatException e) {
-                    return false;
-                }
-            case LESS_THAN:
-                try {
-                    return Double.parseDouble(fieldValue) < Double.parseDouble(searchValue);
-                } catch (NumberFormatException e) {
-                    return false;
-                }
-            default:
-                return false;
+    @Override
+    public List<Student> search(Query query) {
+        long start = System.nanoTime();
+        try {
+            return CRITERIA.search(query, dataStore::streamStudents);
+        } finally {
+            SEARCH_LATENCY.recordSince(start);
         }
     }
 }
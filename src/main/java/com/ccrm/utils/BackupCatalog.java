@@ -0,0 +1,185 @@
+package com.ccrm.utils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Catalog of the backups in a backup directory, kept in catalog.csv.
+ * One line is appended as each backup is created, so reports and age-based
+ * cleanup read one small file instead of walking every backup tree.
+ */
+public class BackupCatalog {
+
+    public static final String CATALOG_FILE = "catalog.csv";
+    private static final String CATALOG_HEADER = "Name,Type,CreatedAt,FileCount,TotalSize,StoredSize,Checksum";
+
+    /**
+     * Kinds of backup.
+     */
+    public enum BackupType {
+        FULL, COMPRESSED, INCREMENTAL, LINKED
+    }
+
+    /**
+     * One catalogued backup.
+     */
+    public static class Entry {
+        private final String name;
+        private final BackupType type;
+        private final long createdAt;
+        private final int fileCount;
+        private final long totalSize;
+        private final long storedSize;
+        private final String checksum;
+
+        /**
+         * @param name Path of the backup relative to the backup directory
+         * @param type Kind of backup
+         * @param createdAt Creation time in epoch milliseconds
+         * @param fileCount Number of data files backed up
+         * @param totalSize Size of the data files backed up
+         * @param storedSize Bytes the backup added to the backup directory
+         * @param checksum SHA-256 identifying the backup's content (empty if unknown)
+         */
+        public Entry(String name, BackupType type, long createdAt, int fileCount,
+                     long totalSize, long storedSize, String checksum) {
+            this.name = name;
+            this.type = type;
+            this.createdAt = createdAt;
+            this.fileCount = fileCount;
+            this.totalSize = totalSize;
+            this.storedSize = storedSize;
+            this.checksum = checksum;
+        }
+
+        public String getName() { return name; }
+        public BackupType getType() { return type; }
+        public long getCreatedAt() { return createdAt; }
+        public int getFileCount() { return fileCount; }
+        public long getTotalSize() { return totalSize; }
+        public long getStoredSize() { return storedSize; }
+        public String getChecksum() { return checksum; }
+
+        @Override
+        public String toString() {
+            return String.format("%s [%s] %s, Files: %d, Size: %s, Stored: %s",
+                               name, type, Instant.ofEpochMilli(createdAt), fileCount,
+                               FileUtils.formatFileSize(totalSize), FileUtils.formatFileSize(storedSize));
+        }
+    }
+
+    /**
+     * Appends an entry for a newly created backup.
+     * @param backupBaseDir The base directory for backups
+     * @param entry The backup to record
+     * @throws IOException if the catalog cannot be written
+     */
+    public static synchronized void append(String backupBaseDir, Entry entry) throws IOException {
+        Path catalog = Paths.get(backupBaseDir, CATALOG_FILE);
+        if (!Files.exists(catalog)) {
+            // Back-fill backups made before the catalog existed, then add the new one
+            List<Entry> entries = rebuild(backupBaseDir);
+            entries.removeIf(existing -> existing.getName().equals(entry.getName()));
+            entries.add(entry);
+            write(backupBaseDir, entries);
+            return;
+        }
+        Files.write(catalog, (format(entry) + System.lineSeparator()).getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Reads every catalogued backup, oldest first. A missing catalog is rebuilt
+     * from the backup directory once.
+     * @param backupBaseDir The base directory for backups
+     * @return The catalogued backups
+     * @throws IOException if the catalog cannot be read
+     */
+    public static synchronized List<Entry> load(String backupBaseDir) throws IOException {
+        Path catalog = Paths.get(backupBaseDir, CATALOG_FILE);
+        if (!Files.exists(catalog)) {
+            List<Entry> entries = rebuild(backupBaseDir);
+            if (!entries.isEmpty()) {
+                write(backupBaseDir, entries);
+            }
+            return entries;
+        }
+        List<Entry> entries = new ArrayList<>();
+        for (String line : Files.readAllLines(catalog, StandardCharsets.UTF_8)) {
+            if (line.isEmpty() || line.equals(CATALOG_HEADER)) {
+                continue;
+            }
+            String[] fields = line.split(",", -1);
+            if (fields.length < 7) {
+                throw new IOException("Malformed catalog line: " + line);
+            }
+            entries.add(new Entry(fields[0], BackupType.valueOf(fields[1]), Long.parseLong(fields[2]),
+                                  Integer.parseInt(fields[3]), Long.parseLong(fields[4]),
+                                  Long.parseLong(fields[5]), fields[6]));
+        }
+        return entries;
+    }
+
+    /**
+     * Replaces the catalog with the given entries.
+     * @param backupBaseDir The base directory for backups
+     * @param entries The backups that remain
+     * @throws IOException if the catalog cannot be written
+     */
+    public static synchronized void write(String backupBaseDir, List<Entry> entries) throws IOException {
+        Path catalog = Paths.get(backupBaseDir, CATALOG_FILE);
+        Files.createDirectories(catalog.getParent());
+        StringBuilder content = new StringBuilder(CATALOG_HEADER).append(System.lineSeparator());
+        for (Entry entry : entries) {
+            content.append(format(entry)).append(System.lineSeparator());
+        }
+        Path temp = catalog.resolveSibling(CATALOG_FILE + ".tmp");
+        Files.write(temp, content.toString().getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, catalog, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String format(Entry entry) {
+        return String.join(",", entry.getName(), entry.getType().name(), String.valueOf(entry.getCreatedAt()),
+                           String.valueOf(entry.getFileCount()), String.valueOf(entry.getTotalSize()),
+                           String.valueOf(entry.getStoredSize()), entry.getChecksum());
+    }
+
+    /**
+     * Walks the backup directory once to catalog backups made before the catalog
+     * existed. Their checksums are left empty.
+     */
+    private static List<Entry> rebuild(String backupBaseDir) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        Path base = Paths.get(backupBaseDir);
+        if (!Files.isDirectory(base)) {
+            return entries;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(base, "backup_*")) {
+            for (Path dir : stream) {
+                if (!Files.isDirectory(dir)) {
+                    continue;
+                }
+                BackupUtils.FileCountInfo info = BackupUtils.countFilesRecursively(dir.toString());
+                BackupType type = BackupType.FULL;
+                if (Files.exists(dir.resolve("checksums.sha256"))) {
+                    type = BackupType.COMPRESSED;
+                } else if (Files.exists(dir.resolve(BackupUtils.LINKED_INDEX_FILE))) {
+                    type = BackupType.LINKED;
+                }
+                entries.add(new Entry(dir.getFileName().toString(), type,
+                                      Files.getLastModifiedTime(dir).toMillis(), info.getFileCount(),
+                                      info.getTotalSize(), info.getTotalSize(), ""));
+            }
+        }
+        for (String manifest : BackupUtils.listIncrementalBackups(backupBaseDir)) {
+            Path manifestPath = Paths.get(manifest);
+            entries.add(BackupUtils.describeIncrementalBackup(base, manifestPath, 0L, ""));
+        }
+        entries.sort((a, b) -> Long.compare(a.getCreatedAt(), b.getCreatedAt()));
+        return entries;
+    }
+}
@@ -1,16 +1,56 @@
 package com.ccrm.utils;
 
+import com.ccrm.core.LatencyHistogram;
+import com.ccrm.core.MetricsRegistry;
+
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Utility class for backup operations using recursive directory traversal.
  * Demonstrates recursion and file system operations.
  */
 public class BackupUtils {
+
+    private static final String CHUNK_DIR = "chunks";
+    private static final String MANIFEST_DIR = "manifests";
+    private static final String MANIFEST_PREFIX = "incremental_";
+    private static final String MANIFEST_SUFFIX = ".manifest";
+    private static final String MANIFEST_HEADER = "# CCRM incremental backup v1";
+    private static final int CHUNK_SIZE = 1024 * 1024;
+    private static final String CHECKSUM_FILE = "checksums.sha256";
+    private static final String COMPRESSED_SUFFIX = ".gz";
+    private static final int STREAM_BUFFER_SIZE = 256 * 1024;
+    static final String LINKED_INDEX_FILE = ".index";
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final LatencyHistogram BACKUP_LATENCY = MetricsRegistry.getInstance().histogram("backup.create");
     
     /**
      * Creates a backup of all data files to a timestamped directory.
@@ -20,12 +60,553 @@ public class BackupUtils {
      * @throws IOException if backup creation fails
      */
     public static String createBackup(String dataDir, String backupBaseDir) throws IOException {
-        String backupDir = FileUtils.createTimestampedBackupDir(backupBaseDir);
-        
-        // Copy all files from data directory to backup directory
-        copyDirectoryRecursively(dataDir, backupDir);
-        
-        return backupDir;
+        long start = System.nanoTime();
+        try {
+            String backupDir = FileUtils.createTimestampedBackupDir(backupBaseDir);
+
+            // Copy all files from data directory to backup directory, hashing them on the way
+            Path source = Paths.get(dataDir);
+            Path target = Paths.get(backupDir);
+            if (!Files.exists(source)) {
+                throw new IOException("Source directory does not exist: " + dataDir);
+            }
+            MessageDigest digest = newDigest();
+            byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+            List<String> listing = new ArrayList<>();
+            long[] totalSize = {0};
+            Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                    Files.createDirectories(target.resolve(source.relativize(dir).toString()));
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    String relativePath = source.relativize(file).toString().replace('\\', '/');
+                    try (InputStream in = Files.newInputStream(file);
+                         OutputStream out = Files.newOutputStream(target.resolve(relativePath))) {
+                        int read;
+                        while ((read = in.read(buffer)) > 0) {
+                            digest.update(buffer, 0, read);
+                            out.write(buffer, 0, read);
+                            totalSize[0] += read;
+                        }
+                    }
+                    listing.add(toHex(digest.digest()) + "  " + relativePath);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+
+            BackupCatalog.append(backupBaseDir, new BackupCatalog.Entry(target.getFileName().toString(),
+                    BackupCatalog.BackupType.FULL, System.currentTimeMillis(), listing.size(),
+                    totalSize[0], totalSize[0], listingChecksum(listing)));
+            return backupDir;
+        } finally {
+            BACKUP_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Creates a snapshot-style backup that shares unchanged files with the
+     * previous one through hard links.
+     * A file whose size and modification time match its entry in the previous
+     * snapshot backup is hard-linked to it without being read. Any other file is
+     * copied and hashed; if its content matches a file of the previous backup
+     * (e.g. it was only touched) the copy is replaced by a link as well. Each
+     * backup directory keeps a .index of hash, size and modification time per
+     * file for the next run. Where hard links are not supported the file is copied.
+     * @param dataDir The directory containing data files
+     * @param backupBaseDir The base directory for backups
+     * @return Summary of the backup
+     * @throws IOException if backup creation fails
+     */
+    public static LinkedBackupInfo createLinkedBackup(String dataDir, String backupBaseDir) throws IOException {
+        Path source = Paths.get(dataDir);
+        if (!Files.exists(source)) {
+            throw new IOException("Source directory does not exist: " + dataDir);
+        }
+        Path base = Paths.get(backupBaseDir);
+        Path previous = null;
+        for (BackupCatalog.Entry entry : BackupCatalog.load(backupBaseDir)) {
+            Path dir = base.resolve(entry.getName());
+            if (entry.getType() == BackupCatalog.BackupType.LINKED && Files.exists(dir.resolve(LINKED_INDEX_FILE))) {
+                previous = dir;
+            }
+        }
+        Path target = Paths.get(FileUtils.createTimestampedBackupDir(backupBaseDir));
+        if (target.equals(previous)) {
+            throw new IOException("A snapshot backup was already created this second: " + target);
+        }
+
+        Map<String, IndexEntry> previousByPath = new HashMap<>();
+        Map<String, String> previousPathByHash = new HashMap<>();
+        if (previous != null) {
+            for (String line : Files.readAllLines(previous.resolve(LINKED_INDEX_FILE), StandardCharsets.UTF_8)) {
+                IndexEntry entry = IndexEntry.parse(line);
+                previousByPath.put(entry.relativePath, entry);
+                previousPathByHash.put(entry.hash, entry.relativePath);
+            }
+        }
+
+        Path previousDir = previous;
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+        List<IndexEntry> index = new ArrayList<>();
+        long[] counters = new long[3]; // linked files, copied files, copied bytes
+        long[] totalSize = {0};
+        Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(target.resolve(source.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                String relativePath = source.relativize(file).toString().replace('\\', '/');
+                Path targetFile = target.resolve(relativePath);
+                long size = attrs.size();
+                long modified = attrs.lastModifiedTime().toMillis();
+                totalSize[0] += size;
+
+                IndexEntry unchanged = previousByPath.get(relativePath);
+                if (unchanged != null && unchanged.size == size && unchanged.modified == modified
+                        && tryLink(targetFile, previousDir.resolve(relativePath))) {
+                    index.add(new IndexEntry(unchanged.hash, size, modified, relativePath));
+                    counters[0]++;
+                    return FileVisitResult.CONTINUE;
+                }
+
+                try (InputStream in = Files.newInputStream(file);
+                     OutputStream out = Files.newOutputStream(targetFile)) {
+                    int read;
+                    while ((read = in.read(buffer)) > 0) {
+                        digest.update(buffer, 0, read);
+                        out.write(buffer, 0, read);
+                    }
+                }
+                String hash = toHex(digest.digest());
+                String samePath = previousPathByHash.get(hash);
+                if (samePath != null) {
+                    Path tempCopy = targetFile.resolveSibling(targetFile.getFileName() + ".copy");
+                    Files.move(targetFile, tempCopy);
+                    if (tryLink(targetFile, previousDir.resolve(samePath))) {
+                        Files.delete(tempCopy);
+                        index.add(new IndexEntry(hash, size, modified, relativePath));
+                        counters[0]++;
+                        return FileVisitResult.CONTINUE;
+                    }
+                    Files.move(tempCopy, targetFile);
+                }
+                index.add(new IndexEntry(hash, size, modified, relativePath));
+                counters[1]++;
+                counters[2] += size;
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        StringBuilder indexContent = new StringBuilder();
+        List<String> listing = new ArrayList<>();
+        for (IndexEntry entry : index) {
+            indexContent.append(entry).append('\n');
+            listing.add(entry.hash + "  " + entry.relativePath);
+        }
+        Path indexFile = target.resolve(LINKED_INDEX_FILE);
+        Files.write(indexFile, indexContent.toString().getBytes(StandardCharsets.UTF_8));
+
+        BackupCatalog.append(backupBaseDir, new BackupCatalog.Entry(target.getFileName().toString(),
+                BackupCatalog.BackupType.LINKED, System.currentTimeMillis(), index.size(), totalSize[0],
+                counters[2] + Files.size(indexFile), listingChecksum(listing)));
+        return new LinkedBackupInfo(target.toString(), index.size(), (int) counters[0], (int) counters[1],
+                                    totalSize[0], counters[2]);
+    }
+
+    private static boolean tryLink(Path link, Path existing) {
+        if (!Files.exists(existing)) {
+            return false;
+        }
+        try {
+            Files.createLink(link, existing);
+            return true;
+        } catch (UnsupportedOperationException | IOException e) {
+            // e.g. a file system without hard links, or the backup spans devices
+            return false;
+        }
+    }
+
+    /**
+     * One file of a snapshot backup's index.
+     */
+    private static final class IndexEntry {
+        private final String hash;
+        private final long size;
+        private final long modified;
+        private final String relativePath;
+
+        IndexEntry(String hash, long size, long modified, String relativePath) {
+            this.hash = hash;
+            this.size = size;
+            this.modified = modified;
+            this.relativePath = relativePath;
+        }
+
+        static IndexEntry parse(String line) throws IOException {
+            String[] fields = line.split("\t", 4);
+            if (fields.length < 4) {
+                throw new IOException("Malformed backup index line: " + line);
+            }
+            return new IndexEntry(fields[0], Long.parseLong(fields[1]), Long.parseLong(fields[2]), fields[3]);
+        }
+
+        @Override
+        public String toString() {
+            return hash + "\t" + size + "\t" + modified + "\t" + relativePath;
+        }
+    }
+
+    /**
+     * Creates an incremental backup of all data files.
+     * Files are split into fixed-size chunks that are stored once each in a
+     * content-addressed store (backups/chunks, named by SHA-256), so unchanged
+     * data costs nothing on later runs. The backup itself is a small manifest
+     * listing each file's size and chunk hashes.
+     * @param dataDir The directory containing data files
+     * @param backupBaseDir The base directory for backups
+     * @return Summary of the backup, including the manifest path
+     * @throws IOException if backup creation fails
+     */
+    public static IncrementalBackupInfo createIncrementalBackup(String dataDir, String backupBaseDir) throws IOException {
+        Path source = Paths.get(dataDir);
+        if (!Files.exists(source)) {
+            throw new IOException("Source directory does not exist: " + dataDir);
+        }
+        Path chunkStore = Paths.get(backupBaseDir, CHUNK_DIR);
+        Path manifestDir = Paths.get(backupBaseDir, MANIFEST_DIR);
+        Files.createDirectories(chunkStore);
+        Files.createDirectories(manifestDir);
+
+        List<Path> files = new ArrayList<>();
+        Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                files.add(file);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        files.sort(null);
+
+        MessageDigest digest = newDigest();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(CHUNK_SIZE);
+        StringBuilder manifest = new StringBuilder(MANIFEST_HEADER).append('\n');
+        manifest.append("created=").append(LocalDateTime.now()).append('\n');
+        manifest.append("chunkSize=").append(CHUNK_SIZE).append('\n');
+        long totalSize = 0;
+        int chunkCount = 0;
+        int newChunkCount = 0;
+        long newBytes = 0;
+
+        for (Path file : files) {
+            String relativePath = source.relativize(file).toString().replace('\\', '/');
+            List<String> hashes = new ArrayList<>();
+            long size = 0;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                while (readChunk(channel, buffer) > 0) {
+                    int length = buffer.remaining();
+                    digest.update(buffer.duplicate());
+                    String hash = toHex(digest.digest());
+                    Path chunkPath = chunkPath(chunkStore, hash);
+                    if (!Files.exists(chunkPath)) {
+                        writeChunk(chunkPath, buffer);
+                        newChunkCount++;
+                        newBytes += length;
+                    }
+                    hashes.add(hash);
+                    size += length;
+                }
+            }
+            manifest.append("file\t").append(relativePath).append('\t').append(size).append('\t')
+                    .append(String.join(",", hashes)).append('\n');
+            totalSize += size;
+            chunkCount += hashes.size();
+        }
+
+        // Manifest last: a backup exists only once all of its chunks do
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss_SSS"));
+        Path manifestPath = manifestDir.resolve(MANIFEST_PREFIX + timestamp + MANIFEST_SUFFIX);
+        Path temp = manifestDir.resolve(manifestPath.getFileName() + ".tmp");
+        Files.write(temp, manifest.toString().getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, manifestPath, StandardCopyOption.ATOMIC_MOVE);
+        BackupCatalog.append(backupBaseDir, describeIncrementalBackup(Paths.get(backupBaseDir), manifestPath,
+                newBytes + Files.size(manifestPath), toHex(newDigest().digest(Files.readAllBytes(manifestPath)))));
+
+        return new IncrementalBackupInfo(manifestPath.toString(), files.size(), totalSize,
+                                         chunkCount, newChunkCount, newBytes);
+    }
+
+    /**
+     * Creates a compressed backup of all data files.
+     * The tree is walked once and each file is gzipped to its own .gz output on
+     * a bounded pool of worker threads, while the SHA-256 of its original content
+     * is computed in the same pass. The checksums are written to checksums.sha256
+     * in the backup directory.
+     * @param dataDir The directory containing data files
+     * @param backupBaseDir The base directory for backups
+     * @return Summary of the backup, including throughput
+     * @throws IOException if backup creation fails
+     */
+    public static CompressedBackupInfo createCompressedBackup(String dataDir, String backupBaseDir) throws IOException {
+        return createCompressedBackup(dataDir, backupBaseDir, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a compressed backup using the given number of worker threads.
+     * @param dataDir The directory containing data files
+     * @param backupBaseDir The base directory for backups
+     * @param threads Number of files compressed at once
+     * @return Summary of the backup, including throughput
+     * @throws IOException if backup creation fails
+     */
+    public static CompressedBackupInfo createCompressedBackup(String dataDir, String backupBaseDir, int threads)
+            throws IOException {
+        long start = System.nanoTime();
+        Path source = Paths.get(dataDir);
+        if (!Files.exists(source)) {
+            throw new IOException("Source directory does not exist: " + dataDir);
+        }
+        Path target = Paths.get(FileUtils.createTimestampedBackupDir(backupBaseDir));
+
+        // Bounded queue with caller-runs: the walk never gets far ahead of the workers
+        int workers = Math.max(1, threads);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workers * 2), new ThreadPoolExecutor.CallerRunsPolicy());
+        List<Future<CompressedFile>> results = new ArrayList<>();
+        try {
+            Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                    Files.createDirectories(target.resolve(source.relativize(dir).toString()));
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    String relativePath = source.relativize(file).toString().replace('\\', '/');
+                    results.add(executor.submit(() -> compressFile(file, relativePath,
+                            target.resolve(relativePath + COMPRESSED_SUFFIX))));
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+
+            long originalBytes = 0;
+            long compressedBytes = 0;
+            List<CompressedFile> files = new ArrayList<>();
+            for (Future<CompressedFile> result : results) {
+                CompressedFile file = awaitResult(result);
+                files.add(file);
+                originalBytes += file.originalSize;
+                compressedBytes += file.compressedSize;
+            }
+            files.sort((a, b) -> a.relativePath.compareTo(b.relativePath));
+
+            List<String> listing = new ArrayList<>();
+            try (BufferedWriter writer = Files.newBufferedWriter(target.resolve(CHECKSUM_FILE), StandardCharsets.UTF_8)) {
+                for (CompressedFile file : files) {
+                    // sha256sum format, so the originals can be checked with standard tools after gunzip
+                    writer.write(file.sha256 + "  " + file.relativePath);
+                    writer.newLine();
+                    listing.add(file.sha256 + "  " + file.relativePath);
+                }
+            }
+            BackupCatalog.append(backupBaseDir, new BackupCatalog.Entry(target.getFileName().toString(),
+                    BackupCatalog.BackupType.COMPRESSED, System.currentTimeMillis(), files.size(),
+                    originalBytes, compressedBytes, listingChecksum(listing)));
+
+            long elapsedNanos = System.nanoTime() - start;
+            return new CompressedBackupInfo(target.toString(), files.size(), originalBytes, compressedBytes,
+                                            TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Restores a compressed backup, checking each file against its recorded checksum.
+     * @param backupDir The compressed backup directory
+     * @param targetDir Directory to restore the files into
+     * @return Number of files restored
+     * @throws IOException if a file is missing or corrupt, or writing fails
+     */
+    public static int restoreCompressedBackup(String backupDir, String targetDir) throws IOException {
+        Path backup = Paths.get(backupDir);
+        Path target = Paths.get(targetDir);
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+        int restored = 0;
+
+        for (String line : Files.readAllLines(backup.resolve(CHECKSUM_FILE), StandardCharsets.UTF_8)) {
+            int separator = line.indexOf("  ");
+            if (separator < 0) {
+                continue;
+            }
+            String hash = line.substring(0, separator);
+            String relativePath = line.substring(separator + 2);
+            Path file = target.resolve(relativePath).normalize();
+            if (!file.startsWith(target.normalize())) {
+                throw new IOException("Checksum entry escapes the restore directory: " + relativePath);
+            }
+            Path parent = file.getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (InputStream in = new GZIPInputStream(
+                         Files.newInputStream(backup.resolve(relativePath + COMPRESSED_SUFFIX)), STREAM_BUFFER_SIZE);
+                 OutputStream out = Files.newOutputStream(file)) {
+                int read;
+                while ((read = in.read(buffer)) > 0) {
+                    digest.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                }
+            }
+            if (!toHex(digest.digest()).equals(hash)) {
+                throw new IOException("Checksum mismatch for " + relativePath);
+            }
+            restored++;
+        }
+        return restored;
+    }
+
+    private static CompressedFile compressFile(Path file, String relativePath, Path output) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+        long originalSize = 0;
+        try (InputStream in = Files.newInputStream(file);
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(output), STREAM_BUFFER_SIZE) {
+                 {
+                     // Backups favour speed; the default level costs several times more CPU for a few percent
+                     def.setLevel(Deflater.BEST_SPEED);
+                 }
+             }) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+                out.write(buffer, 0, read);
+                originalSize += read;
+            }
+        }
+        return new CompressedFile(relativePath, originalSize, Files.size(output), toHex(digest.digest()));
+    }
+
+    private static <T> T awaitResult(Future<T> result) throws IOException {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while creating backup", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            throw new IOException("Backup failed: " + cause, cause);
+        }
+    }
+
+    private static final class CompressedFile {
+        private final String relativePath;
+        private final long originalSize;
+        private final long compressedSize;
+        private final String sha256;
+
+        CompressedFile(String relativePath, long originalSize, long compressedSize, String sha256) {
+            this.relativePath = relativePath;
+            this.originalSize = originalSize;
+            this.compressedSize = compressedSize;
+            this.sha256 = sha256;
+        }
+    }
+
+    /**
+     * Rebuilds the data files of an incremental backup from its manifest.
+     * Every chunk is checked against its hash while it is copied.
+     * @param manifestPath Path of the backup's manifest
+     * @param targetDir Directory to restore the files into
+     * @return Number of files restored
+     * @throws IOException if a chunk is missing or corrupt, or writing fails
+     */
+    public static int restoreIncrementalBackup(String manifestPath, String targetDir) throws IOException {
+        Path manifest = Paths.get(manifestPath);
+        Path chunkStore = manifest.toAbsolutePath().getParent().resolveSibling(CHUNK_DIR);
+        Path target = Paths.get(targetDir);
+        MessageDigest digest = newDigest();
+        int restored = 0;
+
+        List<String> lines = Files.readAllLines(manifest, StandardCharsets.UTF_8);
+        if (lines.isEmpty() || !lines.get(0).equals(MANIFEST_HEADER)) {
+            throw new IOException("Not an incremental backup manifest: " + manifestPath);
+        }
+        for (String line : lines) {
+            if (!line.startsWith("file\t")) {
+                continue;
+            }
+            String[] fields = line.split("\t", -1);
+            Path file = target.resolve(fields[1]).normalize();
+            if (!file.startsWith(target.normalize())) {
+                throw new IOException("Manifest entry escapes the restore directory: " + fields[1]);
+            }
+            long expectedSize = Long.parseLong(fields[2]);
+            Path parent = file.getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+
+            long size = 0;
+            try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                for (String hash : fields[3].isEmpty() ? new String[0] : fields[3].split(",")) {
+                    Path chunkPath = chunkPath(chunkStore, hash);
+                    if (!Files.exists(chunkPath)) {
+                        throw new IOException("Missing backup chunk " + hash + " for " + fields[1]);
+                    }
+                    ByteBuffer chunk = ByteBuffer.wrap(Files.readAllBytes(chunkPath));
+                    digest.update(chunk.duplicate());
+                    if (!toHex(digest.digest()).equals(hash)) {
+                        throw new IOException("Corrupt backup chunk " + hash + " for " + fields[1]);
+                    }
+                    size += chunk.remaining();
+                    while (chunk.hasRemaining()) {
+                        out.write(chunk);
+                    }
+                }
+            }
+            if (size != expectedSize) {
+                throw new IOException("Restored size of " + fields[1] + " does not match the manifest");
+            }
+            restored++;
+        }
+        return restored;
+    }
+
+    /**
+     * Lists the manifests of all incremental backups, oldest first.
+     * @param backupBaseDir The base directory for backups
+     * @return Manifest paths
+     * @throws IOException if the directory cannot be read
+     */
+    public static List<String> listIncrementalBackups(String backupBaseDir) throws IOException {
+        List<String> manifests = new ArrayList<>();
+        Path manifestDir = Paths.get(backupBaseDir, MANIFEST_DIR);
+        if (!Files.isDirectory(manifestDir)) {
+            return manifests;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(manifestDir, MANIFEST_PREFIX + "*" + MANIFEST_SUFFIX)) {
+            stream.forEach(path -> manifests.add(path.toString()));
+        }
+        manifests.sort(null);
+        return manifests;
     }
 
     /**
@@ -176,10 +757,14 @@ public class BackupUtils {
     }
 
     /**
-     * Recursively deletes old backup directories based on age.
+     * Deletes backups older than the given age, as recorded in the backup
+     * catalog. Only the expired backups are touched; no backup tree is walked to
+     * find them. Chunks of expired incremental backups are deleted unless a
+     * remaining manifest still refers to them. Must not run while an incremental
+     * backup is being created, whose new chunks are not referenced yet.
      * @param backupDir The backup directory
      * @param maxAgeInDays Maximum age in days for backups to keep
-     * @return Number of directories deleted
+     * @return Number of backups deleted
      * @throws IOException if deletion fails
      */
     public static int cleanupOldBackups(String backupDir, int maxAgeInDays) throws IOException {
@@ -188,25 +773,147 @@ public class BackupUtils {
             return 0;
         }
 
-        final int[] deletedCount = {0};
         long maxAgeMillis = maxAgeInDays * 24L * 60L * 60L * 1000L;
         long cutoffTime = System.currentTimeMillis() - maxAgeMillis;
+        List<BackupCatalog.Entry> kept = new ArrayList<>();
+        List<BackupCatalog.Entry> expired = new ArrayList<>();
+        for (BackupCatalog.Entry entry : BackupCatalog.load(backupDir)) {
+            (entry.getCreatedAt() < cutoffTime ? expired : kept).add(entry);
+        }
+        if (expired.isEmpty()) {
+            return 0;
+        }
 
-        Files.walkFileTree(backupPath, new SimpleFileVisitor<Path>() {
-            @Override
-            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
-                if (!dir.equals(backupPath) && dir.getFileName().toString().startsWith("backup_")) {
-                    if (attrs.creationTime().toMillis() < cutoffTime) {
-                        FileUtils.deleteRecursively(dir.toString());
-                        deletedCount[0]++;
-                        return FileVisitResult.SKIP_SUBTREE;
-                    }
+        Set<String> releasedChunks = new HashSet<>();
+        for (BackupCatalog.Entry entry : expired) {
+            Path path = backupPath.resolve(entry.getName());
+            if (entry.getType() == BackupCatalog.BackupType.INCREMENTAL) {
+                if (Files.exists(path)) {
+                    releasedChunks.addAll(readChunkHashes(path));
+                    Files.delete(path);
                 }
-                return FileVisitResult.CONTINUE;
+            } else {
+                FileUtils.deleteRecursively(path.toString());
             }
-        });
+        }
+        BackupCatalog.write(backupDir, kept);
+
+        for (BackupCatalog.Entry entry : kept) {
+            if (releasedChunks.isEmpty()) {
+                break;
+            }
+            Path path = backupPath.resolve(entry.getName());
+            if (entry.getType() == BackupCatalog.BackupType.INCREMENTAL && Files.exists(path)) {
+                releasedChunks.removeAll(readChunkHashes(path));
+            }
+        }
+        Path chunkStore = backupPath.resolve(CHUNK_DIR);
+        for (String hash : releasedChunks) {
+            Files.deleteIfExists(chunkPath(chunkStore, hash));
+        }
+        return expired.size();
+    }
+
+    /**
+     * Lists all backups from the backup catalog, oldest first.
+     * @param backupBaseDir The base directory for backups
+     * @return The catalogued backups
+     * @throws IOException if the catalog cannot be read
+     */
+    public static List<BackupCatalog.Entry> listBackups(String backupBaseDir) throws IOException {
+        return BackupCatalog.load(backupBaseDir);
+    }
 
-        return deletedCount[0];
+    private static Set<String> readChunkHashes(Path manifestPath) throws IOException {
+        Set<String> hashes = new HashSet<>();
+        for (String line : Files.readAllLines(manifestPath, StandardCharsets.UTF_8)) {
+            if (line.startsWith("file\t")) {
+                String list = line.substring(line.lastIndexOf('\t') + 1);
+                if (!list.isEmpty()) {
+                    hashes.addAll(Arrays.asList(list.split(",")));
+                }
+            }
+        }
+        return hashes;
+    }
+
+    /**
+     * Builds the catalog entry of an incremental backup from its manifest.
+     */
+    static BackupCatalog.Entry describeIncrementalBackup(Path backupBase, Path manifestPath, long storedSize,
+                                                         String checksum) throws IOException {
+        int fileCount = 0;
+        long totalSize = 0;
+        for (String line : Files.readAllLines(manifestPath, StandardCharsets.UTF_8)) {
+            if (line.startsWith("file\t")) {
+                fileCount++;
+                totalSize += Long.parseLong(line.split("\t", -1)[2]);
+            }
+        }
+        String name = backupBase.relativize(manifestPath).toString().replace('\\', '/');
+        return new BackupCatalog.Entry(name, BackupCatalog.BackupType.INCREMENTAL,
+                                       Files.getLastModifiedTime(manifestPath).toMillis(),
+                                       fileCount, totalSize, storedSize, checksum);
+    }
+
+    /**
+     * SHA-256 over a backup's sorted "hash  path" listing, identifying its whole content.
+     */
+    private static String listingChecksum(List<String> listingLines) throws IOException {
+        List<String> sorted = new ArrayList<>(listingLines);
+        sorted.sort(null);
+        MessageDigest digest = newDigest();
+        for (String line : sorted) {
+            digest.update((line + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        return toHex(digest.digest());
+    }
+
+    private static int readChunk(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.clear();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+        return buffer.remaining();
+    }
+
+    private static void writeChunk(Path chunkPath, ByteBuffer data) throws IOException {
+        Files.createDirectories(chunkPath.getParent());
+        // Written aside and moved into place so a chunk file is never partial
+        Path temp = chunkPath.resolveSibling(chunkPath.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer bytes = data.duplicate();
+            while (bytes.hasRemaining()) {
+                out.write(bytes);
+            }
+        }
+        Files.move(temp, chunkPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static Path chunkPath(Path chunkStore, String hash) {
+        // Fan out by the first two hex digits to keep directories small
+        return chunkStore.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private static MessageDigest newDigest() throws IOException {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xF];
+        }
+        return new String(chars);
     }
 
     /**
@@ -233,6 +940,118 @@ public class BackupUtils {
         }
     }
 
+    /**
+     * Class representing the result of an incremental backup.
+     */
+    public static class IncrementalBackupInfo {
+        private final String manifestPath;
+        private final int fileCount;
+        private final long totalSize;
+        private final int chunkCount;
+        private final int newChunkCount;
+        private final long newBytes;
+
+        public IncrementalBackupInfo(String manifestPath, int fileCount, long totalSize,
+                                     int chunkCount, int newChunkCount, long newBytes) {
+            this.manifestPath = manifestPath;
+            this.fileCount = fileCount;
+            this.totalSize = totalSize;
+            this.chunkCount = chunkCount;
+            this.newChunkCount = newChunkCount;
+            this.newBytes = newBytes;
+        }
+
+        public String getManifestPath() { return manifestPath; }
+        public int getFileCount() { return fileCount; }
+        public long getTotalSize() { return totalSize; }
+        public int getChunkCount() { return chunkCount; }
+        public int getNewChunkCount() { return newChunkCount; }
+        public long getNewBytes() { return newBytes; }
+
+        @Override
+        public String toString() {
+            return String.format("Files: %d (%s), Chunks: %d, New Chunks: %d (%s stored)",
+                               fileCount, FileUtils.formatFileSize(totalSize), chunkCount,
+                               newChunkCount, FileUtils.formatFileSize(newBytes));
+        }
+    }
+
+    /**
+     * Class representing the result of a snapshot (hard-linked) backup.
+     */
+    public static class LinkedBackupInfo {
+        private final String backupDir;
+        private final int fileCount;
+        private final int linkedCount;
+        private final int copiedCount;
+        private final long totalSize;
+        private final long copiedSize;
+
+        public LinkedBackupInfo(String backupDir, int fileCount, int linkedCount, int copiedCount,
+                                long totalSize, long copiedSize) {
+            this.backupDir = backupDir;
+            this.fileCount = fileCount;
+            this.linkedCount = linkedCount;
+            this.copiedCount = copiedCount;
+            this.totalSize = totalSize;
+            this.copiedSize = copiedSize;
+        }
+
+        public String getBackupDir() { return backupDir; }
+        public int getFileCount() { return fileCount; }
+        public int getLinkedCount() { return linkedCount; }
+        public int getCopiedCount() { return copiedCount; }
+        public long getTotalSize() { return totalSize; }
+        public long getCopiedSize() { return copiedSize; }
+
+        @Override
+        public String toString() {
+            return String.format("Files: %d (%s), Linked: %d, Copied: %d (%s)",
+                               fileCount, FileUtils.formatFileSize(totalSize), linkedCount,
+                               copiedCount, FileUtils.formatFileSize(copiedSize));
+        }
+    }
+
+    /**
+     * Class representing the result of a compressed backup.
+     */
+    public static class CompressedBackupInfo {
+        private final String backupDir;
+        private final int fileCount;
+        private final long originalSize;
+        private final long compressedSize;
+        private final long elapsedMillis;
+
+        public CompressedBackupInfo(String backupDir, int fileCount, long originalSize,
+                                    long compressedSize, long elapsedMillis) {
+            this.backupDir = backupDir;
+            this.fileCount = fileCount;
+            this.originalSize = originalSize;
+            this.compressedSize = compressedSize;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public String getBackupDir() { return backupDir; }
+        public int getFileCount() { return fileCount; }
+        public long getOriginalSize() { return originalSize; }
+        public long getCompressedSize() { return compressedSize; }
+        public long getElapsedMillis() { return elapsedMillis; }
+
+        /**
+         * @return Original bytes processed per second, in MB/s
+         */
+        public double getThroughputMBps() {
+            return elapsedMillis > 0 ? originalSize / (1024.0 * 1024.0) / (elapsedMillis / 1000.0) : 0.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Files: %d, Size: %s -> %s, Time: %d ms, Throughput: %.1f MB/s",
+                               fileCount, FileUtils.formatFileSize(originalSize),
+                               FileUtils.formatFileSize(compressedSize), elapsedMillis, getThroughputMBps());
+        }
+    }
+
     /**
      * Class representing file count information.
      */
@@ -0,0 +1,514 @@
+package com.ccrm.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+
+/**
+ * Reusable CSV tokenizer working directly over UTF-8 bytes in a ByteBuffer.
+ * Each record is scanned in place and its fields are reported as offsets into
+ * the buffer; Strings are only created when a field is asked for, and numbers,
+ * booleans and dates are parsed straight from the bytes.
+ *
+ * Quoting follows the original line parser: a double quote toggles quoting,
+ * a doubled quote inside quotes is a literal quote, and the record is trimmed
+ * of surrounding whitespace. Unlike the line-based reader, line breaks inside
+ * quoted fields are kept as part of the field.
+ */
+public class CSVTokenizer {
+
+    /**
+     * Supplies more input when the tokenizer runs out of buffered bytes.
+     */
+    public interface Source {
+        /**
+         * Returns a buffer whose position is at the byte previously at
+         * {@code keepFrom} in the current buffer, followed by as much further
+         * input as is available. Returning a buffer with no additional bytes
+         * signals the end of input.
+         * @param buffer The current buffer (may be null before the first read)
+         * @param keepFrom Index of the first byte that is still needed
+         * @return The refilled buffer
+         * @throws IOException if reading fails
+         */
+        ByteBuffer refill(ByteBuffer buffer, int keepFrom) throws IOException;
+    }
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+
+    private static final int RECORD = 0;
+    private static final int END_OF_INPUT = 1;
+    private static final int NEED_MORE = 2;
+
+    private final Source source;
+    private ByteBuffer buffer;
+    private int position;
+    private boolean exhausted;
+
+    // Current record: field boundaries as buffer offsets
+    private int fieldCount;
+    private int[] fieldStart = new int[16];
+    private int[] fieldEnd = new int[16];
+    private boolean[] fieldQuoted = new boolean[16];
+    private long recordLine;
+    private long nextLine;
+
+    // Scratch space for unescaping and for copying out of direct/mapped buffers
+    private byte[] scratch = new byte[256];
+
+    /**
+     * Creates a tokenizer over a fixed block of bytes (from position to limit).
+     * @param data The bytes to tokenize
+     */
+    public CSVTokenizer(ByteBuffer data) {
+        this(data, 1);
+    }
+
+    /**
+     * Creates a tokenizer over a fixed block of bytes whose first record starts
+     * at the given line of the original file.
+     * @param data The bytes to tokenize
+     * @param firstLine Line number of the first byte in the block (1-based)
+     */
+    public CSVTokenizer(ByteBuffer data, long firstLine) {
+        this.source = null;
+        this.buffer = data;
+        this.position = data.position();
+        this.exhausted = true;
+        this.nextLine = firstLine;
+    }
+
+    /**
+     * Creates a tokenizer that pulls its input from a source as needed.
+     * @param source The input source
+     */
+    public CSVTokenizer(Source source) {
+        this.source = source;
+        this.nextLine = 1;
+    }
+
+    /**
+     * Creates a tokenizer reading from a channel through a reusable buffer.
+     * The buffer grows only if a single record does not fit into it.
+     * @param channel The channel to read from
+     * @param bufferSize Initial buffer size in bytes
+     */
+    public CSVTokenizer(ReadableByteChannel channel, int bufferSize) {
+        this(new ChannelSource(channel, bufferSize));
+    }
+
+    /**
+     * Creates a tokenizer that decodes straight from memory-mapped windows of a
+     * file instead of copying it into heap buffers. Windows slide forward as
+     * records are consumed, so files larger than 2 GB are supported.
+     * @param channel The file to map
+     * @param windowSize Size of each mapped window in bytes
+     * @return A tokenizer over the mapped file
+     */
+    public static CSVTokenizer mapped(FileChannel channel, int windowSize) {
+        return new CSVTokenizer(new MappedSource(channel, windowSize));
+    }
+
+    /**
+     * Advances to the next non-blank record.
+     * @return true if a record is available, false at end of input
+     * @throws IOException if reading fails
+     */
+    public boolean next() throws IOException {
+        if (buffer == null) {
+            refill();
+        }
+        while (true) {
+            int result = scanRecord();
+            if (result == RECORD) {
+                return true;
+            }
+            if (result == END_OF_INPUT) {
+                return false;
+            }
+            refill();
+        }
+    }
+
+    private void refill() throws IOException {
+        if (source == null) {
+            exhausted = true;
+            return;
+        }
+        int before = buffer != null ? buffer.limit() - position : 0;
+        buffer = source.refill(buffer, position);
+        position = buffer.position();
+        exhausted = buffer.limit() - position <= before;
+    }
+
+    private int scanRecord() {
+        ByteBuffer buf = buffer;
+        int limit = buf.limit();
+        int p = position;
+        long line = nextLine;
+
+        // Skip leading whitespace and blank lines
+        while (p < limit) {
+            byte b = buf.get(p);
+            if (b == '\n') {
+                line++;
+            } else if ((b & 0xff) > ' ') {
+                break;
+            }
+            p++;
+        }
+        if (p >= limit) {
+            if (!exhausted) {
+                return NEED_MORE;
+            }
+            position = p;
+            nextLine = line;
+            return END_OF_INPUT;
+        }
+
+        long startLine = line;
+        fieldCount = 0;
+        int start = p;
+        boolean inQuotes = false;
+        boolean quoted = false;
+        while (p < limit) {
+            byte b = buf.get(p);
+            if (b == '"') {
+                inQuotes = !inQuotes;
+                quoted = true;
+            } else if (b == '\n') {
+                if (!inQuotes) {
+                    addField(start, trimEnd(start, p), quoted);
+                    position = p + 1;
+                    recordLine = startLine;
+                    nextLine = line + 1;
+                    return RECORD;
+                }
+                line++;
+            } else if (b == ',' && !inQuotes) {
+                addField(start, p, quoted);
+                start = p + 1;
+                quoted = false;
+            }
+            p++;
+        }
+        if (!exhausted) {
+            return NEED_MORE;
+        }
+        // Last record without a trailing newline
+        addField(start, trimEnd(start, limit), quoted);
+        position = limit;
+        recordLine = startLine;
+        nextLine = line;
+        return RECORD;
+    }
+
+    private int trimEnd(int start, int end) {
+        while (end > start && (buffer.get(end - 1) & 0xff) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private void addField(int start, int end, boolean quoted) {
+        if (fieldCount == fieldStart.length) {
+            int size = fieldCount * 2;
+            fieldStart = Arrays.copyOf(fieldStart, size);
+            fieldEnd = Arrays.copyOf(fieldEnd, size);
+            fieldQuoted = Arrays.copyOf(fieldQuoted, size);
+        }
+        fieldStart[fieldCount] = start;
+        fieldEnd[fieldCount] = end;
+        fieldQuoted[fieldCount] = quoted;
+        fieldCount++;
+    }
+
+    /**
+     * @return Number of fields in the current record
+     */
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * @return Line number (1-based) on which the current record starts
+     */
+    public long lineNumber() {
+        return recordLine;
+    }
+
+    /**
+     * Materializes a field as a String, removing quoting.
+     * @param index Field index
+     * @return The field value
+     */
+    public String getString(int index) {
+        int start = fieldStart[index];
+        int end = fieldEnd[index];
+        if (fieldQuoted[index]) {
+            int length = unescape(start, end);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + start, end - start, StandardCharsets.UTF_8);
+        }
+        int length = end - start;
+        ensureScratch(length);
+        for (int i = 0; i < length; i++) {
+            scratch[i] = buffer.get(start + i);
+        }
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Checks whether a field is empty (after removing quoting).
+     * @param index Field index
+     * @return true if the field has no content
+     */
+    public boolean isEmpty(int index) {
+        if (fieldQuoted[index]) {
+            return unescape(fieldStart[index], fieldEnd[index]) == 0;
+        }
+        return fieldStart[index] == fieldEnd[index];
+    }
+
+    /**
+     * Parses a field as an int without creating a String for plain digits.
+     * @param index Field index
+     * @return The parsed value
+     * @throws NumberFormatException if the field is not a valid int
+     */
+    public int getInt(int index) {
+        int start = fieldStart[index];
+        int end = fieldEnd[index];
+        if (!fieldQuoted[index] && end > start) {
+            boolean negative = false;
+            int p = start;
+            byte first = buffer.get(p);
+            if (first == '-' || first == '+') {
+                negative = first == '-';
+                p++;
+            }
+            int digits = end - p;
+            if (digits > 0 && digits <= 9) {
+                int value = 0;
+                for (; p < end; p++) {
+                    int digit = buffer.get(p) - '0';
+                    if (digit < 0 || digit > 9) {
+                        return Integer.parseInt(getString(index));
+                    }
+                    value = value * 10 + digit;
+                }
+                return negative ? -value : value;
+            }
+        }
+        return Integer.parseInt(getString(index));
+    }
+
+    /**
+     * Parses a field as a double. Plain decimals with up to 15 significant
+     * digits are converted exactly from the bytes; anything else falls back
+     * to Double.parseDouble, so results are identical either way.
+     * @param index Field index
+     * @return The parsed value
+     * @throws NumberFormatException if the field is not a valid double
+     */
+    public double getDouble(int index) {
+        int start = fieldStart[index];
+        int end = fieldEnd[index];
+        if (!fieldQuoted[index] && end > start) {
+            boolean negative = false;
+            int p = start;
+            byte first = buffer.get(p);
+            if (first == '-' || first == '+') {
+                negative = first == '-';
+                p++;
+            }
+            long mantissa = 0;
+            int digits = 0;
+            int fractionDigits = -1;
+            for (; p < end; p++) {
+                byte b = buffer.get(p);
+                if (b >= '0' && b <= '9') {
+                    mantissa = mantissa * 10 + (b - '0');
+                    digits++;
+                    if (fractionDigits >= 0) {
+                        fractionDigits++;
+                    }
+                } else if (b == '.' && fractionDigits < 0) {
+                    fractionDigits = 0;
+                } else {
+                    break;
+                }
+            }
+            if (p == end && digits > 0 && digits <= 15) {
+                double value = fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+                return negative ? -value : value;
+            }
+        }
+        return Double.parseDouble(getString(index));
+    }
+
+    /**
+     * Parses a field as a boolean with Boolean.parseBoolean semantics.
+     * @param index Field index
+     * @return true if the field equals "true" ignoring case
+     */
+    public boolean getBoolean(int index) {
+        int start = fieldStart[index];
+        if (fieldQuoted[index]) {
+            return Boolean.parseBoolean(getString(index));
+        }
+        return fieldEnd[index] - start == 4
+                && (buffer.get(start) | 0x20) == 't'
+                && (buffer.get(start + 1) | 0x20) == 'r'
+                && (buffer.get(start + 2) | 0x20) == 'u'
+                && (buffer.get(start + 3) | 0x20) == 'e';
+    }
+
+    /**
+     * Parses a yyyy-MM-dd field as a LocalDate directly from the bytes.
+     * Values the fast path cannot decide fall back to the formatter.
+     * @param index Field index
+     * @return The parsed date
+     */
+    public LocalDate getDate(int index) {
+        int start = fieldStart[index];
+        if (!fieldQuoted[index] && fieldEnd[index] - start == 10
+                && buffer.get(start + 4) == '-' && buffer.get(start + 7) == '-') {
+            int year = digits(start, 4);
+            int month = digits(start + 5, 2);
+            int day = digits(start + 8, 2);
+            // Days past 28 are left to the formatter, which resolves them per month
+            if (year >= 1 && month >= 1 && month <= 12 && day >= 1 && day <= 28) {
+                return LocalDate.of(year, month, day);
+            }
+        }
+        return LocalDate.parse(getString(index), DATE_FORMATTER);
+    }
+
+    private int digits(int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Copies a quoted field into scratch with quotes removed.
+     * @return Length of the unescaped value
+     */
+    private int unescape(int start, int end) {
+        ensureScratch(end - start);
+        int length = 0;
+        boolean inQuotes = false;
+        for (int p = start; p < end; p++) {
+            byte b = buffer.get(p);
+            if (b == '"') {
+                if (inQuotes && p + 1 < end && buffer.get(p + 1) == '"') {
+                    // Escaped quote
+                    scratch[length++] = '"';
+                    p++;
+                } else {
+                    inQuotes = !inQuotes;
+                }
+            } else {
+                scratch[length++] = b;
+            }
+        }
+        return length;
+    }
+
+    private void ensureScratch(int length) {
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+    }
+
+    /**
+     * Source reading from a channel into one reusable heap buffer.
+     */
+    private static class ChannelSource implements Source {
+        private final ReadableByteChannel channel;
+        private final int bufferSize;
+
+        ChannelSource(ReadableByteChannel channel, int bufferSize) {
+            this.channel = channel;
+            this.bufferSize = bufferSize;
+        }
+
+        @Override
+        public ByteBuffer refill(ByteBuffer buffer, int keepFrom) throws IOException {
+            if (buffer == null) {
+                buffer = ByteBuffer.allocate(bufferSize);
+                buffer.limit(0);
+                keepFrom = 0;
+            }
+            int kept = buffer.limit() - keepFrom;
+            if (kept == buffer.capacity()) {
+                // A single record fills the whole buffer: grow it
+                ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+                buffer.position(keepFrom);
+                larger.put(buffer);
+                buffer = larger;
+            } else {
+                buffer.position(keepFrom);
+                buffer.compact();
+            }
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    break;
+                }
+            }
+            buffer.flip();
+            return buffer;
+        }
+    }
+
+    /**
+     * Source mapping consecutive read-only windows of a file. A new window
+     * starts at the first byte still needed, so a record never straddles two
+     * windows; a record longer than the window doubles the window size.
+     */
+    private static class MappedSource implements Source {
+        private final FileChannel channel;
+        private int windowSize;
+        private long windowStart;
+
+        MappedSource(FileChannel channel, int windowSize) {
+            this.channel = channel;
+            this.windowSize = windowSize;
+        }
+
+        @Override
+        public ByteBuffer refill(ByteBuffer buffer, int keepFrom) throws IOException {
+            long size = channel.size();
+            if (buffer != null) {
+                if (windowStart + buffer.limit() >= size) {
+                    // Already mapped up to the end of the file
+                    buffer.position(keepFrom);
+                    return buffer;
+                }
+                if (keepFrom == 0 && buffer.limit() == windowSize) {
+                    windowSize = (int) Math.min((long) windowSize * 2, Integer.MAX_VALUE - 8);
+                }
+                windowStart += keepFrom;
+            }
+            long length = Math.min(windowSize, size - windowStart);
+            return channel.map(FileChannel.MapMode.READ_ONLY, windowStart, length);
+        }
+    }
+}
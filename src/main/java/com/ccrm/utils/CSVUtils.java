@@ -1,19 +1,32 @@
 package com.ccrm.utils;
 
+import com.ccrm.core.LatencyHistogram;
+import com.ccrm.core.MetricsRegistry;
 import com.ccrm.model.*;
 import com.ccrm.enums.Department;
 import com.ccrm.enums.Semester;
 import com.ccrm.enums.Grade;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Utility class for CSV import/export operations.
@@ -23,6 +36,31 @@ public class CSVUtils {
     
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     private static final String CSV_DELIMITER = ",";
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final String STUDENT_CSV_HEADER =
+        "ID,RegistrationNumber,FullName,Email,DateOfBirth,PhoneNumber,EnrollmentDate,IsActive,CurrentGPA";
+    private static final String COURSE_CSV_HEADER =
+        "CourseID,CourseCode,Title,CreditHours,InstructorID,Semester,Department,Description,IsActive,Capacity";
+    private static final String ENROLLMENT_CSV_HEADER =
+        "EnrollmentID,StudentID,CourseID,EnrollmentDate,CompletionDate,NumericGrade,LetterGrade,IsCompleted,IsActive";
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int WRITE_BUFFER_SIZE = 256 * 1024;
+    private static final int PARALLEL_CHUNK_SIZE = 8 * 1024 * 1024;
+    private static final int SCAN_BUFFER_SIZE = 1024 * 1024;
+    private static final int MAPPED_WINDOW_SIZE = 256 * 1024 * 1024;
+    private static final MetricsRegistry METRICS = MetricsRegistry.getInstance();
+    private static final LatencyHistogram STUDENT_EXPORT_LATENCY = METRICS.histogram("csv.export.students");
+    private static final LatencyHistogram STUDENT_IMPORT_LATENCY = METRICS.histogram("csv.import.students");
+    private static final LatencyHistogram STUDENT_PARALLEL_IMPORT_LATENCY = METRICS.histogram("csv.import.students.parallel");
+    private static final LatencyHistogram STUDENT_MAPPED_IMPORT_LATENCY = METRICS.histogram("csv.import.students.mapped");
+    private static final LatencyHistogram COURSE_EXPORT_LATENCY = METRICS.histogram("csv.export.courses");
+    private static final LatencyHistogram COURSE_IMPORT_LATENCY = METRICS.histogram("csv.import.courses");
+    private static final LatencyHistogram COURSE_PARALLEL_IMPORT_LATENCY = METRICS.histogram("csv.import.courses.parallel");
+    private static final LatencyHistogram COURSE_MAPPED_IMPORT_LATENCY = METRICS.histogram("csv.import.courses.mapped");
+    private static final LatencyHistogram ENROLLMENT_EXPORT_LATENCY = METRICS.histogram("csv.export.enrollments");
+    private static final LatencyHistogram ENROLLMENT_IMPORT_LATENCY = METRICS.histogram("csv.import.enrollments");
+    private static final LatencyHistogram ENROLLMENT_PARALLEL_IMPORT_LATENCY = METRICS.histogram("csv.import.enrollments.parallel");
+    private static final LatencyHistogram ENROLLMENT_MAPPED_IMPORT_LATENCY = METRICS.histogram("csv.import.enrollments.mapped");
 
     /**
      * Exports students to CSV format.
@@ -31,25 +69,30 @@ public class CSVUtils {
      * @throws IOException if export fails
      */
     public static void exportStudentsToCSV(List<Student> students, String filePath) throws IOException {
-        List<String> lines = new ArrayList<>();
-        lines.add("ID,RegistrationNumber,FullName,Email,DateOfBirth,PhoneNumber,EnrollmentDate,IsActive,CurrentGPA");
-        
-        for (Student student : students) {
-            StringBuilder line = new StringBuilder();
-            line.append(escapeCSV(student.getId())).append(CSV_DELIMITER);
-            line.append(escapeCSV(student.getRegistrationNumber())).append(CSV_DELIMITER);
-            line.append(escapeCSV(student.getFullName())).append(CSV_DELIMITER);
-            line.append(escapeCSV(student.getEmail())).append(CSV_DELIMITER);
-            line.append(student.getDateOfBirth() != null ? student.getDateOfBirth().format(DATE_FORMATTER) : "").append(CSV_DELIMITER);
-            line.append(escapeCSV(student.getPhoneNumber())).append(CSV_DELIMITER);
-            line.append(student.getEnrollmentDate().format(DATE_FORMATTER)).append(CSV_DELIMITER);
-            line.append(student.isActive()).append(CSV_DELIMITER);
-            line.append(student.getCurrentGPA());
-            
-            lines.add(line.toString());
-        }
-        
-        Files.write(Paths.get(filePath), lines, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        exportStudentsToCSV(students.iterator(), filePath);
+    }
+
+    /**
+     * Streams students to CSV format one row at a time through a buffered channel
+     * writer, so the source can be read straight off DataStore without a copy.
+     * @param students Iterator over the students to export
+     * @param filePath Output file path
+     * @throws IOException if export fails
+     */
+    public static void exportStudentsToCSV(Iterator<Student> students, String filePath) throws IOException {
+        writeCSV(STUDENT_EXPORT_LATENCY, filePath, STUDENT_CSV_HEADER, students, CSVUtils::appendStudent);
+    }
+
+    private static void appendStudent(StringBuilder line, Student student) {
+        line.append(escapeCSV(student.getId())).append(CSV_DELIMITER);
+        line.append(escapeCSV(student.getRegistrationNumber())).append(CSV_DELIMITER);
+        line.append(escapeCSV(student.getFullName())).append(CSV_DELIMITER);
+        line.append(escapeCSV(student.getEmail())).append(CSV_DELIMITER);
+        appendDate(line, student.getDateOfBirth()).append(CSV_DELIMITER);
+        line.append(escapeCSV(student.getPhoneNumber())).append(CSV_DELIMITER);
+        appendDate(line, student.getEnrollmentDate()).append(CSV_DELIMITER);
+        line.append(student.isActive()).append(CSV_DELIMITER);
+        line.append(student.getCurrentGPA());
     }
 
     /**
@@ -59,42 +102,70 @@ public class CSVUtils {
      * @throws IOException if import fails
      */
     public static List<Student> importStudentsFromCSV(String filePath) throws IOException {
-        List<String> lines = Files.readAllLines(Paths.get(filePath));
         List<Student> students = new ArrayList<>();
-        
-        // Skip header line
-        for (int i = 1; i < lines.size(); i++) {
-            String line = lines.get(i).trim();
-            if (line.isEmpty()) continue;
-            
-            String[] fields = parseCSVLine(line);
-            if (fields.length >= 8) {
-                Student student = new Student(
-                    fields[0], // ID
-                    fields[1], // Registration Number
-                    fields[2], // Full Name
-                    fields[3]  // Email
-                );
-                
-                if (!fields[4].isEmpty()) {
-                    student.setDateOfBirth(LocalDate.parse(fields[4], DATE_FORMATTER));
-                }
-                if (!fields[5].isEmpty()) {
-                    student.setPhoneNumber(fields[5]);
-                }
-                if (!fields[6].isEmpty()) {
-                    student.setEnrollmentDate(LocalDate.parse(fields[6], DATE_FORMATTER));
-                }
-                student.setActive(Boolean.parseBoolean(fields[7]));
-                if (fields.length > 8 && !fields[8].isEmpty()) {
-                    student.setCurrentGPA(Double.parseDouble(fields[8]));
-                }
-                
-                students.add(student);
-            }
+        importStudentsFromCSV(filePath, students::add);
+        return students;
+    }
+
+    /**
+     * Streams students from CSV format, handing each row to the consumer as soon
+     * as it is parsed. Memory use is bounded by the read buffer, not the file size.
+     * @param filePath Input file path
+     * @param consumer Receiver of each imported student (e.g. dataStore::addStudent)
+     * @return Number of students imported
+     * @throws IOException if import fails
+     */
+    public static int importStudentsFromCSV(String filePath, Consumer<Student> consumer) throws IOException {
+        return streamCSV(STUDENT_IMPORT_LATENCY, filePath, CSVUtils::parseStudent, consumer);
+    }
+
+    /**
+     * Imports students in parallel; see {@link #importEnrollmentsFromCSVParallel}.
+     * @param filePath Input file path
+     * @param batchConsumer Thread-safe receiver of each parsed chunk (e.g. dataStore::addStudents)
+     * @return Number of students imported
+     * @throws IOException if import fails
+     */
+    public static int importStudentsFromCSVParallel(String filePath, Consumer<List<Student>> batchConsumer) throws IOException {
+        return parallelCSV(STUDENT_PARALLEL_IMPORT_LATENCY, filePath, CSVUtils::parseStudent, batchConsumer);
+    }
+
+    /**
+     * Imports students by decoding directly from a memory-mapped file.
+     * @param filePath Input file path
+     * @param consumer Receiver of each imported student
+     * @return Number of students imported
+     * @throws IOException if import fails
+     */
+    public static int importStudentsFromCSVMapped(String filePath, Consumer<Student> consumer) throws IOException {
+        return mappedCSV(STUDENT_MAPPED_IMPORT_LATENCY, filePath, CSVUtils::parseStudent, consumer);
+    }
+
+    private static Student parseStudent(CSVTokenizer row) {
+        if (row.fieldCount() < 8) {
+            return null;
         }
+        Student student = new Student(
+            row.getString(0), // ID
+            row.getString(1), // Registration Number
+            row.getString(2), // Full Name
+            row.getString(3)  // Email
+        );
         
-        return students;
+        if (!row.isEmpty(4)) {
+            student.setDateOfBirth(row.getDate(4));
+        }
+        if (!row.isEmpty(5)) {
+            student.setPhoneNumber(row.getString(5));
+        }
+        if (!row.isEmpty(6)) {
+            student.setEnrollmentDate(row.getDate(6));
+        }
+        student.setActive(row.getBoolean(7));
+        if (row.fieldCount() > 8 && !row.isEmpty(8)) {
+            student.setCurrentGPA(row.getDouble(8));
+        }
+        return student;
     }
 
     /**
@@ -104,25 +175,31 @@ public class CSVUtils {
      * @throws IOException if export fails
      */
     public static void exportCoursesToCSV(List<Course> courses, String filePath) throws IOException {
-        List<String> lines = new ArrayList<>();
-        lines.add("CourseID,CourseCode,Title,CreditHours,InstructorID,Semester,Department,Description,IsActive");
-        
-        for (Course course : courses) {
-            StringBuilder line = new StringBuilder();
-            line.append(escapeCSV(course.getCourseId())).append(CSV_DELIMITER);
-            line.append(escapeCSV(course.getCourseCode())).append(CSV_DELIMITER);
-            line.append(escapeCSV(course.getTitle())).append(CSV_DELIMITER);
-            line.append(course.getCreditHours()).append(CSV_DELIMITER);
-            line.append(escapeCSV(course.getInstructorId())).append(CSV_DELIMITER);
-            line.append(course.getSemester().name()).append(CSV_DELIMITER);
-            line.append(course.getDepartment().name()).append(CSV_DELIMITER);
-            line.append(escapeCSV(course.getDescription())).append(CSV_DELIMITER);
-            line.append(course.isActive());
-            
-            lines.add(line.toString());
-        }
-        
-        Files.write(Paths.get(filePath), lines, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        exportCoursesToCSV(courses.iterator(), filePath);
+    }
+
+    /**
+     * Streams courses to CSV format one row at a time through a buffered channel
+     * writer, so the source can be read straight off DataStore without a copy.
+     * @param courses Iterator over the courses to export
+     * @param filePath Output file path
+     * @throws IOException if export fails
+     */
+    public static void exportCoursesToCSV(Iterator<Course> courses, String filePath) throws IOException {
+        writeCSV(COURSE_EXPORT_LATENCY, filePath, COURSE_CSV_HEADER, courses, CSVUtils::appendCourse);
+    }
+
+    private static void appendCourse(StringBuilder line, Course course) {
+        line.append(escapeCSV(course.getCourseId())).append(CSV_DELIMITER);
+        line.append(escapeCSV(course.getCourseCode())).append(CSV_DELIMITER);
+        line.append(escapeCSV(course.getTitle())).append(CSV_DELIMITER);
+        line.append(course.getCreditHours()).append(CSV_DELIMITER);
+        line.append(escapeCSV(course.getInstructorId())).append(CSV_DELIMITER);
+        line.append(course.getSemester().name()).append(CSV_DELIMITER);
+        line.append(course.getDepartment().name()).append(CSV_DELIMITER);
+        line.append(escapeCSV(course.getDescription())).append(CSV_DELIMITER);
+        line.append(course.isActive()).append(CSV_DELIMITER);
+        line.append(course.getCapacity());
     }
 
     /**
@@ -132,38 +209,69 @@ public class CSVUtils {
      * @throws IOException if import fails
      */
     public static List<Course> importCoursesFromCSV(String filePath) throws IOException {
-        List<String> lines = Files.readAllLines(Paths.get(filePath));
         List<Course> courses = new ArrayList<>();
-        
-        // Skip header line
-        for (int i = 1; i < lines.size(); i++) {
-            String line = lines.get(i).trim();
-            if (line.isEmpty()) continue;
-            
-            String[] fields = parseCSVLine(line);
-            if (fields.length >= 8) {
-                Course course = new Course(
-                    fields[0], // Course ID
-                    fields[1], // Course Code
-                    fields[2], // Title
-                    Integer.parseInt(fields[3]), // Credit Hours
-                    fields[4], // Instructor ID
-                    Semester.valueOf(fields[5]), // Semester
-                    Department.valueOf(fields[6]) // Department
-                );
-                
-                if (fields.length > 7 && !fields[7].isEmpty()) {
-                    course.setDescription(fields[7]);
-                }
-                if (fields.length > 8) {
-                    course.setActive(Boolean.parseBoolean(fields[8]));
-                }
-                
-                courses.add(course);
-            }
+        importCoursesFromCSV(filePath, courses::add);
+        return courses;
+    }
+
+    /**
+     * Streams courses from CSV format into the consumer row by row.
+     * @param filePath Input file path
+     * @param consumer Receiver of each imported course (e.g. dataStore::addCourse)
+     * @return Number of courses imported
+     * @throws IOException if import fails
+     */
+    public static int importCoursesFromCSV(String filePath, Consumer<Course> consumer) throws IOException {
+        return streamCSV(COURSE_IMPORT_LATENCY, filePath, CSVUtils::parseCourse, consumer);
+    }
+
+    /**
+     * Imports courses in parallel; see {@link #importEnrollmentsFromCSVParallel}.
+     * @param filePath Input file path
+     * @param batchConsumer Thread-safe receiver of each parsed chunk (e.g. dataStore::addCourses)
+     * @return Number of courses imported
+     * @throws IOException if import fails
+     */
+    public static int importCoursesFromCSVParallel(String filePath, Consumer<List<Course>> batchConsumer) throws IOException {
+        return parallelCSV(COURSE_PARALLEL_IMPORT_LATENCY, filePath, CSVUtils::parseCourse, batchConsumer);
+    }
+
+    /**
+     * Imports courses by decoding directly from a memory-mapped file.
+     * @param filePath Input file path
+     * @param consumer Receiver of each imported course
+     * @return Number of courses imported
+     * @throws IOException if import fails
+     */
+    public static int importCoursesFromCSVMapped(String filePath, Consumer<Course> consumer) throws IOException {
+        return mappedCSV(COURSE_MAPPED_IMPORT_LATENCY, filePath, CSVUtils::parseCourse, consumer);
+    }
+
+    private static Course parseCourse(CSVTokenizer row) {
+        if (row.fieldCount() < 8) {
+            return null;
         }
+        Course course = new Course(
+            row.getString(0), // Course ID
+            row.getString(1), // Course Code
+            row.getString(2), // Title
+            row.getInt(3), // Credit Hours
+            row.getString(4), // Instructor ID
+            Semester.valueOf(row.getString(5)), // Semester
+            Department.valueOf(row.getString(6)) // Department
+        );
         
-        return courses;
+        if (row.fieldCount() > 7 && !row.isEmpty(7)) {
+            course.setDescription(row.getString(7));
+        }
+        if (row.fieldCount() > 8) {
+            course.setActive(row.getBoolean(8));
+        }
+        // Files exported before courses had a capacity end at IsActive
+        if (row.fieldCount() > 9 && !row.isEmpty(9)) {
+            course.setCapacity(row.getInt(9));
+        }
+        return course;
     }
 
     /**
@@ -173,25 +281,30 @@ public class CSVUtils {
      * @throws IOException if export fails
      */
     public static void exportEnrollmentsToCSV(List<Enrollment> enrollments, String filePath) throws IOException {
-        List<String> lines = new ArrayList<>();
-        lines.add("EnrollmentID,StudentID,CourseID,EnrollmentDate,CompletionDate,NumericGrade,LetterGrade,IsCompleted,IsActive");
-        
-        for (Enrollment enrollment : enrollments) {
-            StringBuilder line = new StringBuilder();
-            line.append(escapeCSV(enrollment.getEnrollmentId())).append(CSV_DELIMITER);
-            line.append(escapeCSV(enrollment.getStudentId())).append(CSV_DELIMITER);
-            line.append(escapeCSV(enrollment.getCourseId())).append(CSV_DELIMITER);
-            line.append(enrollment.getEnrollmentDate().format(DATE_FORMATTER)).append(CSV_DELIMITER);
-            line.append(enrollment.getCompletionDate() != null ? enrollment.getCompletionDate().format(DATE_FORMATTER) : "").append(CSV_DELIMITER);
-            line.append(enrollment.getNumericGrade()).append(CSV_DELIMITER);
-            line.append(enrollment.getLetterGrade() != null ? enrollment.getLetterGrade().name() : "").append(CSV_DELIMITER);
-            line.append(enrollment.isCompleted()).append(CSV_DELIMITER);
-            line.append(enrollment.isActive());
-            
-            lines.add(line.toString());
-        }
-        
-        Files.write(Paths.get(filePath), lines, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        exportEnrollmentsToCSV(enrollments.iterator(), filePath);
+    }
+
+    /**
+     * Streams enrollments to CSV format one row at a time through a buffered channel
+     * writer, so the source can be read straight off DataStore without a copy.
+     * @param enrollments Iterator over the enrollments to export
+     * @param filePath Output file path
+     * @throws IOException if export fails
+     */
+    public static void exportEnrollmentsToCSV(Iterator<Enrollment> enrollments, String filePath) throws IOException {
+        writeCSV(ENROLLMENT_EXPORT_LATENCY, filePath, ENROLLMENT_CSV_HEADER, enrollments, CSVUtils::appendEnrollment);
+    }
+
+    private static void appendEnrollment(StringBuilder line, Enrollment enrollment) {
+        line.append(escapeCSV(enrollment.getEnrollmentId())).append(CSV_DELIMITER);
+        line.append(escapeCSV(enrollment.getStudentId())).append(CSV_DELIMITER);
+        line.append(escapeCSV(enrollment.getCourseId())).append(CSV_DELIMITER);
+        appendDate(line, enrollment.getEnrollmentDate()).append(CSV_DELIMITER);
+        appendDate(line, enrollment.getCompletionDate()).append(CSV_DELIMITER);
+        line.append(enrollment.getNumericGrade()).append(CSV_DELIMITER);
+        line.append(enrollment.getLetterGrade() != null ? enrollment.getLetterGrade().name() : "").append(CSV_DELIMITER);
+        line.append(enrollment.isCompleted()).append(CSV_DELIMITER);
+        line.append(enrollment.isActive());
     }
 
     /**
@@ -201,46 +314,322 @@ public class CSVUtils {
      * @throws IOException if import fails
      */
     public static List<Enrollment> importEnrollmentsFromCSV(String filePath) throws IOException {
-        List<String> lines = Files.readAllLines(Paths.get(filePath));
         List<Enrollment> enrollments = new ArrayList<>();
+        importEnrollmentsFromCSV(filePath, enrollments::add);
+        return enrollments;
+    }
+
+    /**
+     * Streams enrollments from CSV format into the consumer row by row.
+     * Suitable for enrollment exports far larger than the heap.
+     * @param filePath Input file path
+     * @param consumer Receiver of each imported enrollment (e.g. dataStore::addEnrollment)
+     * @return Number of enrollments imported
+     * @throws IOException if import fails
+     */
+    public static int importEnrollmentsFromCSV(String filePath, Consumer<Enrollment> consumer) throws IOException {
+        return streamCSV(ENROLLMENT_IMPORT_LATENCY, filePath, CSVUtils::parseEnrollment, consumer);
+    }
+
+    /**
+     * Imports enrollments in parallel. The file is split into byte-range chunks
+     * that end on record boundaries (newlines outside quotes), the chunks are
+     * parsed on the common ForkJoinPool and each parsed chunk is handed to the
+     * consumer as one batch. Error messages carry the record's line number in
+     * the original file.
+     * @param filePath Input file path
+     * @param batchConsumer Thread-safe receiver of each parsed chunk (e.g. dataStore::addEnrollments)
+     * @return Number of enrollments imported
+     * @throws IOException if import fails
+     */
+    public static int importEnrollmentsFromCSVParallel(String filePath, Consumer<List<Enrollment>> batchConsumer) throws IOException {
+        return parallelCSV(ENROLLMENT_PARALLEL_IMPORT_LATENCY, filePath, CSVUtils::parseEnrollment, batchConsumer);
+    }
+
+    /**
+     * Imports enrollments by decoding fields directly from memory-mapped windows
+     * of the file; nothing but the materialized field values reaches the heap.
+     * Files larger than 2 GB are read window by window.
+     * @param filePath Input file path
+     * @param consumer Receiver of each imported enrollment
+     * @return Number of enrollments imported
+     * @throws IOException if import fails
+     */
+    public static int importEnrollmentsFromCSVMapped(String filePath, Consumer<Enrollment> consumer) throws IOException {
+        return mappedCSV(ENROLLMENT_MAPPED_IMPORT_LATENCY, filePath, CSVUtils::parseEnrollment, consumer);
+    }
+
+    private static Enrollment parseEnrollment(CSVTokenizer row) {
+        if (row.fieldCount() < 6) {
+            return null;
+        }
+        Enrollment enrollment = new Enrollment(
+            row.getString(0), // Enrollment ID
+            row.getString(1), // Student ID
+            row.getString(2)  // Course ID
+        );
         
+        if (!row.isEmpty(3)) {
+            enrollment.setEnrollmentDate(row.getDate(3));
+        }
+        if (!row.isEmpty(4)) {
+            enrollment.setCompletionDate(row.getDate(4));
+        }
+        if (!row.isEmpty(5)) {
+            enrollment.setNumericGrade(row.getDouble(5));
+        }
+        if (row.fieldCount() > 6 && !row.isEmpty(6)) {
+            enrollment.setLetterGrade(Grade.valueOf(row.getString(6)));
+        }
+        if (row.fieldCount() > 7) {
+            enrollment.setCompleted(row.getBoolean(7));
+        }
+        if (row.fieldCount() > 8) {
+            enrollment.setActive(row.getBoolean(8));
+        }
+        return enrollment;
+    }
+
+    /**
+     * Reads a CSV file through a buffered channel one record at a time, skipping
+     * the header and blank lines, and pushes every mapped record to the consumer.
+     * Records the mapper rejects (returns null for) are skipped.
+     * @param latency Histogram the time taken is recorded in
+     * @param filePath Input file path
+     * @param mapper Converts the current tokenizer record into a domain object
+     * @param consumer Receiver of each record
+     * @return Number of records delivered to the consumer
+     * @throws IOException if reading fails or a record cannot be parsed
+     */
+    private static <T> int streamCSV(LatencyHistogram latency, String filePath, Function<CSVTokenizer, T> mapper,
+                                     Consumer<T> consumer) throws IOException {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            return consume(filePath, new CSVTokenizer(channel, READ_BUFFER_SIZE), mapper, consumer);
+        } finally {
+            latency.recordSince(start);
+        }
+    }
+
+    private static <T> int mappedCSV(LatencyHistogram latency, String filePath, Function<CSVTokenizer, T> mapper,
+                                     Consumer<T> consumer) throws IOException {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            return consume(filePath, CSVTokenizer.mapped(channel, MAPPED_WINDOW_SIZE), mapper, consumer);
+        } finally {
+            latency.recordSince(start);
+        }
+    }
+
+    private static <T> int consume(String filePath, CSVTokenizer tokenizer, Function<CSVTokenizer, T> mapper,
+                                   Consumer<T> consumer) throws IOException {
+        int count = 0;
         // Skip header line
-        for (int i = 1; i < lines.size(); i++) {
-            String line = lines.get(i).trim();
-            if (line.isEmpty()) continue;
-            
-            String[] fields = parseCSVLine(line);
-            if (fields.length >= 6) {
-                Enrollment enrollment = new Enrollment(
-                    fields[0], // Enrollment ID
-                    fields[1], // Student ID
-                    fields[2]  // Course ID
-                );
-                
-                if (!fields[3].isEmpty()) {
-                    enrollment.setEnrollmentDate(LocalDate.parse(fields[3], DATE_FORMATTER));
-                }
-                if (!fields[4].isEmpty()) {
-                    enrollment.setCompletionDate(LocalDate.parse(fields[4], DATE_FORMATTER));
-                }
-                if (!fields[5].isEmpty()) {
-                    enrollment.setNumericGrade(Double.parseDouble(fields[5]));
-                }
-                if (fields.length > 6 && !fields[6].isEmpty()) {
-                    enrollment.setLetterGrade(Grade.valueOf(fields[6]));
-                }
-                if (fields.length > 7) {
-                    enrollment.setCompleted(Boolean.parseBoolean(fields[7]));
+        tokenizer.next();
+        while (tokenizer.next()) {
+            T record = mapRecord(filePath, tokenizer, mapper);
+            if (record != null) {
+                consumer.accept(record);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static <T> T mapRecord(String filePath, CSVTokenizer tokenizer, Function<CSVTokenizer, T> mapper) throws IOException {
+        try {
+            return mapper.apply(tokenizer);
+        } catch (RuntimeException e) {
+            throw new IOException(String.format("%s: invalid record at line %d: %s",
+                                                filePath, tokenizer.lineNumber(), e.getMessage()), e);
+        }
+    }
+
+    private static <T> int parallelCSV(LatencyHistogram latency, String filePath, Function<CSVTokenizer, T> mapper,
+                                       Consumer<List<T>> batchConsumer) throws IOException {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            List<Chunk> chunks = planChunks(channel);
+            if (chunks.isEmpty()) {
+                return 0;
+            }
+            ChunkTask<T> task = new ChunkTask<>(filePath, channel, chunks, 0, chunks.size(), mapper, batchConsumer);
+            return ForkJoinPool.commonPool().invoke(task);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            latency.recordSince(start);
+        }
+    }
+
+    /**
+     * Splits a file into chunks of roughly PARALLEL_CHUNK_SIZE bytes. A single
+     * sequential pass tracks quote state and line numbers so every chunk starts
+     * at the beginning of a record, even when quoted fields contain newlines.
+     */
+    private static List<Chunk> planChunks(FileChannel channel) throws IOException {
+        List<Chunk> chunks = new ArrayList<>();
+        long size = channel.size();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(SCAN_BUFFER_SIZE);
+        long chunkStart = 0;
+        long chunkFirstLine = 1;
+        long nextSplit = PARALLEL_CHUNK_SIZE;
+        long line = 1;
+        boolean inQuotes = false;
+        long offset = 0;
+
+        while (offset < size && nextSplit < size) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read < 0) break;
+            for (int i = 0; i < read; i++) {
+                byte b = buffer.get(i);
+                if (b == '"') {
+                    inQuotes = !inQuotes;
+                } else if (b == '\n') {
+                    line++;
+                    long recordEnd = offset + i + 1;
+                    if (!inQuotes && recordEnd >= nextSplit) {
+                        chunks.add(new Chunk(chunkStart, recordEnd, chunkFirstLine));
+                        chunkStart = recordEnd;
+                        chunkFirstLine = line;
+                        nextSplit = recordEnd + PARALLEL_CHUNK_SIZE;
+                    }
                 }
-                if (fields.length > 8) {
-                    enrollment.setActive(Boolean.parseBoolean(fields[8]));
+            }
+            offset += read;
+        }
+        if (chunkStart < size) {
+            chunks.add(new Chunk(chunkStart, size, chunkFirstLine));
+        }
+        return chunks;
+    }
+
+    /**
+     * Byte range [start, end) of a CSV file plus the line number it starts on.
+     */
+    private static class Chunk {
+        final long start;
+        final long end;
+        final long firstLine;
+
+        Chunk(long start, long end, long firstLine) {
+            this.start = start;
+            this.end = end;
+            this.firstLine = firstLine;
+        }
+    }
+
+    /**
+     * Fork/join task parsing a range of chunks; splits until one chunk is left.
+     */
+    private static class ChunkTask<T> extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final String filePath;
+        private final FileChannel channel;
+        private final List<Chunk> chunks;
+        private final int from;
+        private final int to;
+        private final Function<CSVTokenizer, T> mapper;
+        private final Consumer<List<T>> batchConsumer;
+
+        ChunkTask(String filePath, FileChannel channel, List<Chunk> chunks, int from, int to,
+                  Function<CSVTokenizer, T> mapper, Consumer<List<T>> batchConsumer) {
+            this.filePath = filePath;
+            this.channel = channel;
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+            this.mapper = mapper;
+            this.batchConsumer = batchConsumer;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                ChunkTask<T> left = new ChunkTask<>(filePath, channel, chunks, from, mid, mapper, batchConsumer);
+                left.fork();
+                int right = new ChunkTask<>(filePath, channel, chunks, mid, to, mapper, batchConsumer).compute();
+                return left.join() + right;
+            }
+            try {
+                return parseChunk(chunks.get(from), from == 0);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private int parseChunk(Chunk chunk, boolean hasHeader) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate((int) (chunk.end - chunk.start));
+            // Positional reads do not move the channel position, so tasks can share it
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, chunk.start + buffer.position()) < 0) break;
+            }
+            buffer.flip();
+
+            CSVTokenizer tokenizer = new CSVTokenizer(buffer, chunk.firstLine);
+            if (hasHeader) {
+                // Skip header line
+                tokenizer.next();
+            }
+            List<T> batch = new ArrayList<>();
+            while (tokenizer.next()) {
+                T record = mapRecord(filePath, tokenizer, mapper);
+                if (record != null) {
+                    batch.add(record);
                 }
-                
-                enrollments.add(enrollment);
             }
+            batchConsumer.accept(batch);
+            return batch.size();
         }
-        
-        return enrollments;
+    }
+
+    /**
+     * Writes a header and one row per record through a single reusable line buffer.
+     * Rows are flushed to the channel as the writer's buffer fills, so memory use
+     * does not depend on the number of records.
+     */
+    private static <T> void writeCSV(LatencyHistogram latency, String filePath, String header, Iterator<T> records,
+                                     BiConsumer<StringBuilder, T> rowWriter) throws IOException {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.WRITE,
+                                                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+             Writer writer = new BufferedWriter(
+                     Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), -1), WRITE_BUFFER_SIZE)) {
+            writer.write(header);
+            writer.write(LINE_SEPARATOR);
+            StringBuilder line = new StringBuilder(256);
+            while (records.hasNext()) {
+                line.setLength(0);
+                rowWriter.accept(line, records.next());
+                line.append(LINE_SEPARATOR);
+                writer.append(line);
+            }
+        } finally {
+            latency.recordSince(start);
+        }
+    }
+
+    /**
+     * Appends a date as yyyy-MM-dd (nothing for null) without allocating.
+     */
+    private static StringBuilder appendDate(StringBuilder line, LocalDate date) {
+        if (date == null) {
+            return line;
+        }
+        int year = date.getYear();
+        if (year < 1000 || year > 9999) {
+            return line.append(date.format(DATE_FORMATTER));
+        }
+        int month = date.getMonthValue();
+        int day = date.getDayOfMonth();
+        line.append(year).append('-');
+        if (month < 10) line.append('0');
+        line.append(month).append('-');
+        if (day < 10) line.append('0');
+        return line.append(day);
     }
 
     /**
@@ -255,41 +644,4 @@ public class CSVUtils {
         }
         return value;
     }
-
-    /**
-     * Parses a CSV line handling quoted fields.
-     * @param line The CSV line to parse
-     * @return Array of field values
-     */
-    private static String[] parseCSVLine(String line) {
-        List<String> fields = new ArrayList<>();
-        boolean inQuotes = false;
-        StringBuilder currentField = new StringBuilder();
-        
-        for (int i = 0; i < line.length(); i++) {
-            char c = line.charAt(i);
-            
-            if (c == '"') {
-                if (inQuotes && i + 1 < line.length() && line.charAt(i + 1) == '"') {
-                    // Escaped quote
-                    currentField.append('"');
-                    i++; // Skip next quote
-                } else {
-                    // Toggle quote state
-                    inQuotes = !inQuotes;
-                }
-            } else if (c == ',' && !inQuotes) {
-                // Field separator
-                fields.add(currentField.toString());
-                currentField = new StringBuilder();
-            } else {
-                currentField.append(c);
-            }
-        }
-        
-        // Add the last field
-        fields.add(currentField.toString());
-        
-        return fields.toArray(new String[0]);
-    }
 }
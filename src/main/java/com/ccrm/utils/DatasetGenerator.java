@@ -0,0 +1,579 @@
+package com.ccrm.utils;
+
+import com.ccrm.core.DataStore;
+import com.ccrm.enums.Department;
+import com.ccrm.enums.Grade;
+import com.ccrm.enums.Semester;
+import com.ccrm.model.Course;
+import com.ccrm.model.Enrollment;
+import com.ccrm.model.Instructor;
+import com.ccrm.model.Student;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+/**
+ * Generates a synthetic campus for load testing: instructors, courses in every
+ * department and semester, students, and a given number of enrollments.
+ *
+ * The same seed and settings always give the same records. Records are produced
+ * one at a time, so writing or loading 100M enrollments needs memory only for the
+ * per-course tables, not for the records (a DataStore being filled still holds
+ * what it is given).
+ *
+ * Skew settings:
+ * - courseSkew: Zipf exponent of course popularity; 0 is uniform, 1 is a few
+ *   courses taking a large share of the enrollments.
+ * - enrollmentSkew: Pareto exponent of enrollments per student; smaller values
+ *   give a longer tail of students with many enrollments.
+ * - withdrawalRate and inProgressRate: share of enrollments withdrawn, and of
+ *   the rest still ungraded; everything else is graded.
+ */
+public class DatasetGenerator {
+
+    private static final Department[] DEPARTMENTS = Department.values();
+    private static final Semester[] SEMESTERS = Semester.values();
+    private static final LocalDate REFERENCE_DATE = LocalDate.of(2025, 1, 6);
+    private static final String[] FIRST_NAMES = {
+        "Aarav", "Amelia", "Benjamin", "Chen", "Chloe", "Daniel", "Elena", "Fatima", "Gabriel", "Hana",
+        "Isaac", "Jamal", "Jos\u00e9", "Kavya", "Liam", "Mei", "Noah", "Olivia", "Priya", "Rafael",
+        "Sofia", "Tariq", "Uma", "Victor", "Wei", "Yusuf", "Zoe", "Ingrid", "Kwame", "Luc\u00eda"
+    };
+    private static final String[] LAST_NAMES = {
+        "Anderson", "Brown", "Chen", "Diaz", "Evans", "Fischer", "Garcia", "Hughes", "Ito", "Johnson",
+        "Khan", "Kim", "Lopez", "Martin", "M\u00fcller", "Nguyen", "Okafor", "Patel", "Quinn", "Rossi",
+        "Singh", "Smith", "Tanaka", "Walker", "Wang", "Williams", "Yilmaz", "Zhang", "Novak", "Silva"
+    };
+    // Names as they appear in email addresses: lowercase, without accents
+    private static final String[] FIRST_NAME_EMAILS = emailNames(FIRST_NAMES);
+    private static final String[] LAST_NAME_EMAILS = emailNames(LAST_NAMES);
+    private static final String[] TOPICS = {
+        "Foundations", "Methods", "Theory", "Practice", "Seminar", "Laboratory", "Topics", "Advanced Studies"
+    };
+    private static final String[] INSTRUCTOR_TITLES = {
+        "Professor", "Associate Professor", "Assistant Professor", "Lecturer"
+    };
+    // Record kinds, so each kind draws from its own random stream
+    private static final long INSTRUCTOR_STREAM = 1;
+    private static final long COURSE_STREAM = 2;
+    private static final long STUDENT_STREAM = 3;
+
+    private final long seed;
+    private final long enrollmentCount;
+    private int courseCount;
+    private int instructorCount;
+    private double courseSkew = 0.8;
+    private double enrollmentSkew = 2.0;
+    private int minEnrollmentsPerStudent = 2;
+    private int maxEnrollmentsPerStudent = 40;
+    private double withdrawalRate = 0.07;
+    private double inProgressRate = 0.15;
+    private double inactiveStudentRate = 0.04;
+    private double inactiveCourseRate = 0.03;
+
+    /**
+     * Creates a generator with default skew and campus size scaled to the
+     * number of enrollments.
+     * @param seed Seed of every random choice
+     * @param enrollmentCount Number of enrollments to generate
+     */
+    public DatasetGenerator(long seed, long enrollmentCount) {
+        if (enrollmentCount < 0) {
+            throw new IllegalArgumentException("Enrollment count must not be negative: " + enrollmentCount);
+        }
+        this.seed = seed;
+        this.enrollmentCount = enrollmentCount;
+        // About 250 enrollments per course and three courses per instructor
+        this.courseCount = (int) Math.max(DEPARTMENTS.length * SEMESTERS.length,
+                                          Math.min(Integer.MAX_VALUE / 2, enrollmentCount / 250));
+        this.instructorCount = Math.max(DEPARTMENTS.length, courseCount / 3);
+    }
+
+    public DatasetGenerator courseCount(int courseCount) {
+        if (courseCount < DEPARTMENTS.length * SEMESTERS.length) {
+            throw new IllegalArgumentException("Need at least one course per department and semester ("
+                                               + DEPARTMENTS.length * SEMESTERS.length + "): " + courseCount);
+        }
+        this.courseCount = courseCount;
+        return this;
+    }
+
+    public DatasetGenerator instructorCount(int instructorCount) {
+        if (instructorCount < DEPARTMENTS.length) {
+            throw new IllegalArgumentException("Need at least one instructor per department ("
+                                               + DEPARTMENTS.length + "): " + instructorCount);
+        }
+        this.instructorCount = instructorCount;
+        return this;
+    }
+
+    public DatasetGenerator courseSkew(double courseSkew) {
+        if (courseSkew < 0) {
+            throw new IllegalArgumentException("Course skew must not be negative: " + courseSkew);
+        }
+        this.courseSkew = courseSkew;
+        return this;
+    }
+
+    public DatasetGenerator enrollmentSkew(double enrollmentSkew) {
+        if (enrollmentSkew <= 0) {
+            throw new IllegalArgumentException("Enrollment skew must be positive: " + enrollmentSkew);
+        }
+        this.enrollmentSkew = enrollmentSkew;
+        return this;
+    }
+
+    public DatasetGenerator enrollmentsPerStudent(int min, int max) {
+        if (min < 1 || max < min) {
+            throw new IllegalArgumentException("Invalid enrollments per student: " + min + ".." + max);
+        }
+        this.minEnrollmentsPerStudent = min;
+        this.maxEnrollmentsPerStudent = max;
+        return this;
+    }
+
+    public DatasetGenerator withdrawalRate(double withdrawalRate) {
+        this.withdrawalRate = checkRate(withdrawalRate);
+        return this;
+    }
+
+    public DatasetGenerator inProgressRate(double inProgressRate) {
+        this.inProgressRate = checkRate(inProgressRate);
+        return this;
+    }
+
+    public DatasetGenerator inactiveStudentRate(double inactiveStudentRate) {
+        this.inactiveStudentRate = checkRate(inactiveStudentRate);
+        return this;
+    }
+
+    public DatasetGenerator inactiveCourseRate(double inactiveCourseRate) {
+        this.inactiveCourseRate = checkRate(inactiveCourseRate);
+        return this;
+    }
+
+    private static double checkRate(double rate) {
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException("Rate must be between 0 and 1: " + rate);
+        }
+        return rate;
+    }
+
+    /**
+     * Generates the instructors, each assigned the courses that name them.
+     * @return Iterator producing the instructors one at a time
+     */
+    public Iterator<Instructor> instructors() {
+        return new Iterator<Instructor>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < instructorCount;
+            }
+
+            @Override
+            public Instructor next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return instructor(next++);
+            }
+        };
+    }
+
+    /**
+     * Generates the courses, covering every department and semester.
+     * @return Iterator producing the courses one at a time
+     */
+    public Iterator<Course> courses() {
+        return new Iterator<Course>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < courseCount;
+            }
+
+            @Override
+            public Course next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return course(next++);
+            }
+        };
+    }
+
+    /**
+     * Generates the students. Their GPAs and enrolled courses match the
+     * enrollments generated for them.
+     * @return Iterator producing the students one at a time
+     */
+    public Iterator<Student> students() {
+        StudentCursor cursor = new StudentCursor(new CourseTable());
+        return new Iterator<Student>() {
+            @Override
+            public boolean hasNext() {
+                return cursor.hasNext();
+            }
+
+            @Override
+            public Student next() {
+                return cursor.next().student;
+            }
+        };
+    }
+
+    /**
+     * Generates the enrollments, grouped by student in the order of {@link #students()}.
+     * @return Iterator producing the enrollments one at a time
+     */
+    public Iterator<Enrollment> enrollments() {
+        StudentCursor cursor = new StudentCursor(new CourseTable());
+        return new Iterator<Enrollment>() {
+            private Iterator<Enrollment> current = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && cursor.hasNext()) {
+                    current = cursor.next().enrollments.iterator();
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public Enrollment next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+    }
+
+    /**
+     * Writes the dataset as students.csv, courses.csv and enrollments.csv in the
+     * CSVUtils format. Instructors have no CSV format and are not written.
+     * @param directory Output directory, created if missing
+     * @throws IOException if writing fails
+     */
+    public void writeCSV(String directory) throws IOException {
+        FileUtils.createDirectoryIfNotExists(directory);
+        CSVUtils.exportCoursesToCSV(courses(), Paths.get(directory, "courses.csv").toString());
+        CSVUtils.exportStudentsToCSV(students(), Paths.get(directory, "students.csv").toString());
+        CSVUtils.exportEnrollmentsToCSV(enrollments(), Paths.get(directory, "enrollments.csv").toString());
+    }
+
+    /**
+     * Adds the dataset to a data store: instructors, then courses, then each
+     * student followed by their enrollments. Records are added as they are,
+     * like an import, without the enrollment rules (e.g. the credit limit).
+     * @param dataStore The data store to fill
+     */
+    public void populate(DataStore dataStore) {
+        instructors().forEachRemaining(dataStore::addInstructor);
+        courses().forEachRemaining(dataStore::addCourse);
+        StudentCursor cursor = new StudentCursor(new CourseTable());
+        while (cursor.hasNext()) {
+            StudentRecord record = cursor.next();
+            dataStore.addStudent(record.student);
+            record.enrollments.forEach(dataStore::addEnrollment);
+        }
+    }
+
+    // Instructors: instructor i teaches in department i % departments
+
+    private Instructor instructor(int index) {
+        SplittableRandom random = random(INSTRUCTOR_STREAM, index);
+        Department department = DEPARTMENTS[index % DEPARTMENTS.length];
+        int first = random.nextInt(FIRST_NAMES.length);
+        int last = random.nextInt(LAST_NAMES.length);
+        Instructor instructor = new Instructor("I" + index, "EMP" + (10000 + index), fullName(first, last),
+                                               email(first, last, index, "faculty.campus.edu"),
+                                               department.getFullName());
+        instructor.setTitle(INSTRUCTOR_TITLES[random.nextInt(INSTRUCTOR_TITLES.length)]);
+        instructor.setHireDate(REFERENCE_DATE.minusDays(365 + random.nextInt(25 * 365)));
+        instructor.setPhoneNumber(phoneNumber(random));
+        // The courses whose instructorFor() is this instructor
+        int perDepartment = instructorsIn(department.ordinal());
+        int slot = index / DEPARTMENTS.length;
+        List<String> courseIds = new ArrayList<>();
+        for (long course = department.ordinal() + (long) DEPARTMENTS.length * slot; course < courseCount;
+             course += (long) DEPARTMENTS.length * perDepartment) {
+            courseIds.add("C" + course);
+        }
+        instructor.setAssignedCourseIds(courseIds);
+        return instructor;
+    }
+
+    private int instructorsIn(int department) {
+        return (instructorCount - department + DEPARTMENTS.length - 1) / DEPARTMENTS.length;
+    }
+
+    private int instructorFor(int course) {
+        int department = course % DEPARTMENTS.length;
+        int slot = (course / DEPARTMENTS.length) % instructorsIn(department);
+        return department + DEPARTMENTS.length * slot;
+    }
+
+    // Courses: the first departments x semesters courses cover every combination
+
+    private Course course(int index) {
+        SplittableRandom random = random(COURSE_STREAM, index);
+        Department department = DEPARTMENTS[index % DEPARTMENTS.length];
+        Semester semester = SEMESTERS[(index / DEPARTMENTS.length) % SEMESTERS.length];
+        String topic = TOPICS[random.nextInt(TOPICS.length)];
+        Course course = new Course("C" + index, department.getAbbreviation() + (100 + index),
+                                   department.getFullName() + " " + topic + " " + (index / DEPARTMENTS.length + 1),
+                                   creditHours(random), "I" + instructorFor(index), semester, department);
+        course.setDescription(topic + " in " + department.getFullName().toLowerCase() + ", offered in the "
+                              + semester.getDisplayName().toLowerCase() + " semester");
+        course.setActive(random.nextDouble() >= inactiveCourseRate);
+        return course;
+    }
+
+    private static int creditHours(SplittableRandom random) {
+        int roll = random.nextInt(20);
+        if (roll < 2) return 1;
+        if (roll < 5) return 2;
+        if (roll < 17) return 3;
+        return 4;
+    }
+
+    /**
+     * What enrollments need to know about each course, drawn from the same
+     * random streams as the courses themselves.
+     */
+    private final class CourseTable {
+        private final int[] creditHours = new int[courseCount];
+        private final float[] difficulty = new float[courseCount];
+        // Cumulative Zipf weights by popularity rank
+        private final double[] popularity = new double[courseCount];
+        // Popularity rank -> course, so popular courses are spread over departments
+        private final long stride;
+
+        CourseTable() {
+            double total = 0;
+            for (int i = 0; i < courseCount; i++) {
+                SplittableRandom random = random(COURSE_STREAM, i);
+                // Same draws, in the same order, as course()
+                random.nextInt(TOPICS.length);
+                creditHours[i] = DatasetGenerator.creditHours(random);
+                random.nextDouble();
+                difficulty[i] = (float) (gaussian(random) * 5);
+                total += Math.pow(i + 1, -courseSkew);
+                popularity[i] = total;
+            }
+            long candidate = Long.remainderUnsigned(0x9E3779B97F4A7C15L, courseCount);
+            while (gcd(candidate, courseCount) != 1) {
+                candidate++;
+            }
+            stride = candidate;
+        }
+
+        int pick(SplittableRandom random) {
+            double target = random.nextDouble() * popularity[courseCount - 1];
+            int low = 0;
+            int high = courseCount - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (popularity[middle] <= target) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return (int) (low * stride % courseCount);
+        }
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    // Students and their enrollments
+
+    private static final class StudentRecord {
+        private final Student student;
+        private final List<Enrollment> enrollments;
+
+        StudentRecord(Student student, List<Enrollment> enrollments) {
+            this.student = student;
+            this.enrollments = enrollments;
+        }
+    }
+
+    /**
+     * Walks the students in order, numbering enrollments as it goes, until the
+     * requested number of enrollments has been generated.
+     */
+    private final class StudentCursor implements Iterator<StudentRecord> {
+        private final CourseTable courses;
+        private long nextStudent;
+        private long nextEnrollment;
+
+        StudentCursor(CourseTable courses) {
+            this.courses = courses;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextEnrollment < enrollmentCount;
+        }
+
+        @Override
+        public StudentRecord next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            StudentRecord record = student(nextStudent++, nextEnrollment, courses);
+            nextEnrollment += record.enrollments.size();
+            return record;
+        }
+    }
+
+    private StudentRecord student(long index, long firstEnrollment, CourseTable courses) {
+        SplittableRandom random = random(STUDENT_STREAM, index);
+        int first = random.nextInt(FIRST_NAMES.length);
+        int last = random.nextInt(LAST_NAMES.length);
+        Student student = new Student("S" + index, "REG" + (1000000 + index), fullName(first, last),
+                                      email(first, last, index, "campus.edu"));
+        LocalDate enrolled = REFERENCE_DATE.minusDays(random.nextInt(4 * 365));
+        student.setEnrollmentDate(enrolled);
+        student.setDateOfBirth(enrolled.minusYears(17 + random.nextInt(9)).minusDays(random.nextInt(365)));
+        student.setPhoneNumber(phoneNumber(random));
+        student.setActive(random.nextDouble() >= inactiveStudentRate);
+        double ability = gaussian(random) * 8;
+
+        // Pareto-distributed count, cut to what is left of the requested total
+        double scale = Math.pow(1 - random.nextDouble(), -1 / enrollmentSkew);
+        long count = Math.min((long) (minEnrollmentsPerStudent * scale), maxEnrollmentsPerStudent);
+        count = Math.min(Math.min(count, courseCount / 2), enrollmentCount - firstEnrollment);
+
+        List<Enrollment> enrollments = new ArrayList<>((int) count);
+        int[] chosen = new int[(int) count];
+        long qualityPointTenths = 0;
+        int gradedCredits = 0;
+        for (int i = 0; i < count; i++) {
+            int course = pickDistinct(random, courses, chosen, i);
+            chosen[i] = course;
+            Enrollment enrollment = new Enrollment("E" + (firstEnrollment + i), student.getId(), "C" + course);
+            double outcome = random.nextDouble();
+            if (outcome < withdrawalRate) {
+                LocalDate date = pastTermStart(random, enrolled);
+                enrollment.setEnrollmentDate(date);
+                enrollment.withdraw();
+                enrollment.setCompletionDate(date.plusDays(10 + random.nextInt(50)));
+            } else if (student.isActive() && outcome < withdrawalRate + (1 - withdrawalRate) * inProgressRate) {
+                enrollment.setEnrollmentDate(REFERENCE_DATE.minusDays(random.nextInt(30)));
+                student.enrollInCourse(enrollment.getCourseId());
+            } else {
+                LocalDate date = pastTermStart(random, enrolled);
+                double score = 80 + ability - courses.difficulty[course] + gaussian(random) * 9;
+                double numericGrade = Math.round(Math.max(0, Math.min(100, score)) * 10) / 10.0;
+                Grade grade = Grade.fromScore(numericGrade);
+                enrollment.setEnrollmentDate(date);
+                enrollment.setNumericGrade(numericGrade);
+                enrollment.setLetterGrade(grade);
+                enrollment.setCompleted(true);
+                enrollment.setCompletionDate(date.plusDays(110));
+                // Graded enrollments stay active, as after EnrollmentService.recordGrade
+                student.enrollInCourse(enrollment.getCourseId());
+                qualityPointTenths += Math.round(grade.getGradePoints() * 10) * courses.creditHours[course];
+                gradedCredits += courses.creditHours[course];
+            }
+            enrollments.add(enrollment);
+        }
+        // Same arithmetic as DataStore.calculateStudentGPA
+        student.setCurrentGPA(gradedCredits > 0 ? qualityPointTenths / 10.0 / gradedCredits : 0.0);
+        return new StudentRecord(student, enrollments);
+    }
+
+    private static int pickDistinct(SplittableRandom random, CourseTable courses, int[] chosen, int count) {
+        // Popular courses repeat often under strong skew; give up on the skew after a few tries
+        for (int attempt = 0; attempt < 16; attempt++) {
+            int course = courses.pick(random);
+            if (!contains(chosen, count, course)) {
+                return course;
+            }
+        }
+        int course = random.nextInt(courses.creditHours.length);
+        while (contains(chosen, count, course)) {
+            course = (course + 1) % courses.creditHours.length;
+        }
+        return course;
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static LocalDate pastTermStart(SplittableRandom random, LocalDate studentEnrolled) {
+        // A term that started after the student enrolled and has finished by the reference date
+        long span = Math.max(1, studentEnrolled.until(REFERENCE_DATE.minusDays(120)).toTotalMonths() * 30);
+        return studentEnrolled.plusDays(random.nextLong(span));
+    }
+
+    // Shared helpers
+
+    private SplittableRandom random(long stream, long index) {
+        // Each record gets its own stream, so any record can be generated on its own
+        return new SplittableRandom(mix(mix(seed ^ stream * 0x9E3779B97F4A7C15L) + index));
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        // Irwin-Hall approximation: sum of 12 uniforms has mean 6 and variance 1
+        double sum = 0;
+        for (int i = 0; i < 12; i++) {
+            sum += random.nextDouble();
+        }
+        return sum - 6;
+    }
+
+    private static String fullName(int first, int last) {
+        return FIRST_NAMES[first] + " " + LAST_NAMES[last];
+    }
+
+    private static String email(int first, int last, long index, String domain) {
+        return FIRST_NAME_EMAILS[first] + "." + LAST_NAME_EMAILS[last] + "." + index + "@" + domain;
+    }
+
+    private static String[] emailNames(String[] names) {
+        String[] emailNames = new String[names.length];
+        for (int i = 0; i < names.length; i++) {
+            emailNames[i] = Normalizer.normalize(names[i], Normalizer.Form.NFD)
+                    .replaceAll("\\p{M}", "").toLowerCase(Locale.ROOT);
+        }
+        return emailNames;
+    }
+
+    private static String phoneNumber(SplittableRandom random) {
+        return "555-" + (100 + random.nextInt(900)) + "-" + (1000 + random.nextInt(9000));
+    }
+}
@@ -0,0 +1,167 @@
+package com.ccrm.utils;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Reads the fields written by {@link RecordWriter}, either from a channel
+ * through a reusable buffer or from a block of bytes already in memory.
+ */
+public class RecordReader {
+    private final ReadableByteChannel channel;
+    private ByteBuffer buffer;
+    private String[] dictionary;
+    private byte[] scratch = new byte[256];
+
+    /**
+     * Creates a reader pulling from a channel.
+     * @param channel Source channel
+     * @param bufferSize Buffer size in bytes
+     */
+    public RecordReader(ReadableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        this.buffer.limit(0);
+    }
+
+    /**
+     * Creates a reader over bytes in memory (from position to limit).
+     * @param data The bytes to read
+     */
+    public RecordReader(ByteBuffer data) {
+        this.channel = null;
+        this.buffer = data;
+    }
+
+    /**
+     * Switches string decoding to dictionary indexes.
+     * @param dictionary Strings indexed as written
+     */
+    public void setDictionary(String[] dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Tells whether bytes are left. Only meaningful for a reader over bytes in
+     * memory; a channel reader only knows what it has buffered so far.
+     * @return true if at least one more byte can be read without refilling
+     */
+    public boolean hasRemaining() {
+        return buffer.hasRemaining();
+    }
+
+    public byte getByte() throws IOException {
+        require(1);
+        return buffer.get();
+    }
+
+    public boolean getBoolean() throws IOException {
+        return getByte() != 0;
+    }
+
+    public int getInt() throws IOException {
+        require(4);
+        return buffer.getInt();
+    }
+
+    public long getLong() throws IOException {
+        require(8);
+        return buffer.getLong();
+    }
+
+    public double getDouble() throws IOException {
+        require(8);
+        return buffer.getDouble();
+    }
+
+    public LocalDate getDate() throws IOException {
+        int epochDay = getInt();
+        return epochDay != RecordWriter.NULL_DATE ? LocalDate.ofEpochDay(epochDay) : null;
+    }
+
+    /**
+     * Reads an enum written as an ordinal byte.
+     * @param values The enum's values() array
+     * @return The constant, or null
+     */
+    public <E extends Enum<E>> E getEnum(E[] values) throws IOException {
+        int ordinal = getByte();
+        if (ordinal < 0) {
+            return null;
+        }
+        if (ordinal >= values.length) {
+            throw new IOException("Unknown enum ordinal " + ordinal);
+        }
+        return values[ordinal];
+    }
+
+    /**
+     * Reads exactly dst.length raw bytes.
+     */
+    public void getBytes(byte[] dst) throws IOException {
+        int read = 0;
+        while (read < dst.length) {
+            require(1);
+            int n = Math.min(buffer.remaining(), dst.length - read);
+            buffer.get(dst, read, n);
+            read += n;
+        }
+    }
+
+    public String getString() throws IOException {
+        int value = getInt();
+        if (value == RecordWriter.NULL_STRING) {
+            return null;
+        }
+        if (dictionary != null) {
+            if (value < 0 || value >= dictionary.length) {
+                throw new IOException("String index out of range: " + value);
+            }
+            return dictionary[value];
+        }
+        return readUtf8(value);
+    }
+
+    /**
+     * Reads a length-prefixed string regardless of any dictionary.
+     */
+    public String getInlineString() throws IOException {
+        int length = getInt();
+        return length != RecordWriter.NULL_STRING ? readUtf8(length) : null;
+    }
+
+    private String readUtf8(int length) throws IOException {
+        if (length < 0) {
+            throw new IOException("Invalid string length " + length);
+        }
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        int read = 0;
+        while (read < length) {
+            require(1);
+            int n = Math.min(buffer.remaining(), length - read);
+            buffer.get(scratch, read, n);
+            read += n;
+        }
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private void require(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) return;
+        if (channel == null) {
+            throw new EOFException("Unexpected end of data");
+        }
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Unexpected end of file");
+            }
+        }
+        buffer.flip();
+    }
+}
@@ -0,0 +1,197 @@
+package com.ccrm.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes fixed-width primitive fields to a channel (or to a growable in-memory
+ * buffer) for the binary persistence formats.
+ *
+ * Strings are written either inline (length + UTF-8 bytes) or, once a string
+ * dictionary is attached, as a 4-byte index into that dictionary. Strings not
+ * yet in the dictionary are given the next index as they are written, so the
+ * dictionary itself can be written after the records in a single pass.
+ */
+public class RecordWriter {
+    public static final int NULL_DATE = Integer.MIN_VALUE;
+    public static final int NULL_STRING = -1;
+
+    private final WritableByteChannel channel;
+    private ByteBuffer buffer;
+    private long flushed;
+    private Map<String, Integer> dictionary;
+
+    /**
+     * Creates a writer that flushes to a channel whenever its buffer fills.
+     * @param channel Destination channel
+     * @param bufferSize Buffer size in bytes
+     */
+    public RecordWriter(WritableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    /**
+     * Creates a writer that encodes into a growable heap buffer.
+     * @param initialCapacity Initial capacity in bytes
+     */
+    public RecordWriter(int initialCapacity) {
+        this.channel = null;
+        this.buffer = ByteBuffer.allocate(initialCapacity);
+    }
+
+    /**
+     * Switches string encoding to indexes into a new, empty dictionary.
+     */
+    public void useDictionary() {
+        this.dictionary = new HashMap<>();
+    }
+
+    /**
+     * @return The dictionary's strings in index order
+     */
+    public String[] getDictionaryStrings() {
+        String[] strings = new String[dictionary.size()];
+        dictionary.forEach((value, index) -> strings[index] = value);
+        return strings;
+    }
+
+    /**
+     * @return Total number of bytes written, including those still buffered
+     */
+    public long position() {
+        return flushed + buffer.position();
+    }
+
+    public void putByte(int value) throws IOException {
+        ensure(1);
+        buffer.put((byte) value);
+    }
+
+    public void putBoolean(boolean value) throws IOException {
+        putByte(value ? 1 : 0);
+    }
+
+    public void putInt(int value) throws IOException {
+        ensure(4);
+        buffer.putInt(value);
+    }
+
+    public void putLong(long value) throws IOException {
+        ensure(8);
+        buffer.putLong(value);
+    }
+
+    public void putDouble(double value) throws IOException {
+        ensure(8);
+        buffer.putDouble(value);
+    }
+
+    /**
+     * Writes a date as its epoch day in 4 bytes.
+     */
+    public void putDate(LocalDate date) throws IOException {
+        putInt(date != null ? (int) date.toEpochDay() : NULL_DATE);
+    }
+
+    /**
+     * Writes an enum as its ordinal in 1 byte (-1 for null).
+     */
+    public void putEnum(Enum<?> value) throws IOException {
+        putByte(value != null ? value.ordinal() : -1);
+    }
+
+    public void putString(String value) throws IOException {
+        if (dictionary != null) {
+            if (value == null) {
+                putInt(NULL_STRING);
+                return;
+            }
+            Integer index = dictionary.get(value);
+            if (index == null) {
+                index = dictionary.size();
+                dictionary.put(value, index);
+            }
+            putInt(index);
+            return;
+        }
+        if (value == null) {
+            putInt(NULL_STRING);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putInt(bytes.length);
+        ensure(bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Writes the remaining bytes of a buffer as they are, without a length prefix.
+     */
+    public void putBytes(ByteBuffer bytes) throws IOException {
+        ensure(bytes.remaining());
+        buffer.put(bytes);
+    }
+
+    /**
+     * Writes raw UTF-8 string bytes with a length prefix, ignoring any dictionary.
+     */
+    public void putInlineString(String value) throws IOException {
+        Map<String, Integer> saved = dictionary;
+        dictionary = null;
+        try {
+            putString(value);
+        } finally {
+            dictionary = saved;
+        }
+    }
+
+    /**
+     * @return The bytes written so far (in-memory writers only), ready for reading
+     */
+    public ByteBuffer toByteBuffer() {
+        ByteBuffer copy = buffer.duplicate();
+        copy.flip();
+        return copy;
+    }
+
+    /**
+     * Discards the bytes of an in-memory writer so it can be reused.
+     */
+    public void reset() {
+        buffer.clear();
+    }
+
+    /**
+     * Writes any buffered bytes to the channel.
+     * @throws IOException if writing fails
+     */
+    public void flush() throws IOException {
+        if (channel == null) return;
+        buffer.flip();
+        flushed += buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) return;
+        if (channel != null) {
+            flush();
+            if (buffer.remaining() >= bytes) return;
+        }
+        ByteBuffer larger = channel != null
+                ? ByteBuffer.allocateDirect(Math.max(buffer.capacity() * 2, bytes))
+                : ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+        buffer.flip();
+        larger.put(buffer);
+        buffer = larger;
+    }
+}
@@ -0,0 +1,358 @@
+package com.ccrm.utils;
+
+import com.ccrm.core.DataStore;
+import com.ccrm.model.*;
+import com.ccrm.enums.Department;
+import com.ccrm.enums.Grade;
+import com.ccrm.enums.Semester;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Utility class for saving and loading the full DataStore state as a binary snapshot.
+ *
+ * Layout (big-endian):
+ * <pre>
+ *   header:      magic "CCRM", version, saved-at millis, log sequence number (v2+),
+ *                dictionary offset, student / instructor / course / enrollment counts
+ *   records:     students, instructors, courses, enrollments
+ *   dictionary:  string count, then each string as length + UTF-8 bytes
+ * </pre>
+ * Every string in a record (IDs included) is a 4-byte dictionary index, dates
+ * are epoch days, enums are ordinal bytes, so each record apart from its
+ * course-ID list is fixed width and decodes without any text parsing. Repeated
+ * IDs share one String instance after loading. The log sequence number records
+ * which write-ahead log records the snapshot already contains. Course records
+ * end with the course's capacity from v3 on.
+ */
+public class SnapshotUtils {
+
+    public static final int MAGIC = 0x4343524D; // "CCRM"
+    public static final int VERSION = 3;
+
+    private static final int HEADER_SIZE = 48;
+    private static final int V1_HEADER_SIZE = 40;
+    private static final int IO_BUFFER_SIZE = 1 << 20;
+
+    /**
+     * Summary of a loaded snapshot.
+     */
+    public static class SnapshotInfo {
+        private final long savedAt;
+        private final long logSequenceNumber;
+        private final int studentCount;
+        private final int instructorCount;
+        private final int courseCount;
+        private final int enrollmentCount;
+
+        SnapshotInfo(long savedAt, long logSequenceNumber, int studentCount, int instructorCount,
+                     int courseCount, int enrollmentCount) {
+            this.savedAt = savedAt;
+            this.logSequenceNumber = logSequenceNumber;
+            this.studentCount = studentCount;
+            this.instructorCount = instructorCount;
+            this.courseCount = courseCount;
+            this.enrollmentCount = enrollmentCount;
+        }
+
+        public long getSavedAt() { return savedAt; }
+        public long getLogSequenceNumber() { return logSequenceNumber; }
+        public int getStudentCount() { return studentCount; }
+        public int getInstructorCount() { return instructorCount; }
+        public int getCourseCount() { return courseCount; }
+        public int getEnrollmentCount() { return enrollmentCount; }
+
+        @Override
+        public String toString() {
+            return String.format("%d students, %d instructors, %d courses, %d enrollments",
+                               studentCount, instructorCount, courseCount, enrollmentCount);
+        }
+    }
+
+    /**
+     * Saves the full state of a DataStore to a snapshot file.
+     * The file is written beside the target and moved into place once complete,
+     * so an interrupted save never leaves a truncated snapshot behind.
+     * @param dataStore The data store to save
+     * @param filePath Path of the snapshot file
+     * @return Summary of what was written
+     * @throws IOException if file writing fails
+     */
+    public static SnapshotInfo saveSnapshot(DataStore dataStore, String filePath) throws IOException {
+        return saveSnapshot(dataStore, filePath, 0L);
+    }
+
+    /**
+     * Saves the full state of a DataStore to a snapshot file, recording the last
+     * write-ahead log record whose change the snapshot is known to contain.
+     * @param dataStore The data store to save
+     * @param filePath Path of the snapshot file
+     * @param logSequenceNumber Log records up to this number need no replay over the snapshot
+     * @return Summary of what was written
+     * @throws IOException if file writing fails
+     */
+    public static SnapshotInfo saveSnapshot(DataStore dataStore, String filePath, long logSequenceNumber)
+            throws IOException {
+        Path target = Paths.get(filePath);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        long savedAt = System.currentTimeMillis();
+        SnapshotInfo info;
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            RecordWriter out = new RecordWriter(channel, IO_BUFFER_SIZE);
+            out.useDictionary();
+            // Header is patched in once the counts and dictionary offset are known
+            for (int i = 0; i < HEADER_SIZE; i += 8) {
+                out.putLong(0L);
+            }
+
+            int studentCount = writeAll(out, dataStore.streamStudents().iterator(), SnapshotUtils::writeStudent);
+            int instructorCount = writeAll(out, dataStore.streamInstructors().iterator(), SnapshotUtils::writeInstructor);
+            int courseCount = writeAll(out, dataStore.streamCourses().iterator(), SnapshotUtils::writeCourse);
+            int enrollmentCount = writeAll(out, dataStore.streamEnrollments().iterator(), SnapshotUtils::writeEnrollment);
+
+            long dictionaryOffset = out.position();
+            String[] strings = out.getDictionaryStrings();
+            out.putInt(strings.length);
+            for (String value : strings) {
+                out.putInlineString(value);
+            }
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putLong(savedAt).putLong(logSequenceNumber).putLong(dictionaryOffset)
+                  .putInt(studentCount).putInt(instructorCount).putInt(courseCount).putInt(enrollmentCount);
+            header.flip();
+            long position = 0;
+            while (header.hasRemaining()) {
+                position += channel.write(header, position);
+            }
+            channel.force(true);
+            info = new SnapshotInfo(savedAt, logSequenceNumber, studentCount, instructorCount,
+                                    courseCount, enrollmentCount);
+        }
+
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return info;
+    }
+
+    /**
+     * Loads a snapshot file into a DataStore, adding to whatever it already holds.
+     * Records are added through the regular DataStore methods so every index and
+     * running total is built as usual.
+     * @param filePath Path of the snapshot file
+     * @param dataStore The data store to load into
+     * @return Summary of what was read
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    public static SnapshotInfo loadSnapshot(String filePath, DataStore dataStore) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(channel, header.limit(8), filePath);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException(filePath + ": not a CCRM snapshot");
+            }
+            int version = header.getInt(4);
+            if (version < 1 || version > VERSION) {
+                throw new IOException(filePath + ": unsupported snapshot version " + version);
+            }
+            int headerSize = version == 1 ? V1_HEADER_SIZE : HEADER_SIZE;
+            readFully(channel, header.limit(headerSize), filePath);
+            header.flip().position(8);
+            long savedAt = header.getLong();
+            long logSequenceNumber = version == 1 ? 0L : header.getLong();
+            long dictionaryOffset = header.getLong();
+            int studentCount = header.getInt();
+            int instructorCount = header.getInt();
+            int courseCount = header.getInt();
+            int enrollmentCount = header.getInt();
+            if (dictionaryOffset < headerSize || dictionaryOffset > channel.size()) {
+                throw new IOException(filePath + ": corrupt snapshot header");
+            }
+
+            channel.position(dictionaryOffset);
+            RecordReader dictionaryReader = new RecordReader(channel, IO_BUFFER_SIZE);
+            String[] strings = new String[dictionaryReader.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = dictionaryReader.getInlineString();
+            }
+
+            channel.position(headerSize);
+            RecordReader in = new RecordReader(channel, IO_BUFFER_SIZE);
+            in.setDictionary(strings);
+            for (int i = 0; i < studentCount; i++) {
+                dataStore.addStudent(readStudent(in));
+            }
+            for (int i = 0; i < instructorCount; i++) {
+                dataStore.addInstructor(readInstructor(in));
+            }
+            for (int i = 0; i < courseCount; i++) {
+                dataStore.addCourse(readCourse(in, version >= 3));
+            }
+            for (int i = 0; i < enrollmentCount; i++) {
+                dataStore.addEnrollment(readEnrollment(in));
+            }
+            return new SnapshotInfo(savedAt, logSequenceNumber, studentCount, instructorCount,
+                                    courseCount, enrollmentCount);
+        }
+    }
+
+    public static void writeStudent(RecordWriter out, Student student) throws IOException {
+        out.putString(student.getId());
+        out.putString(student.getRegistrationNumber());
+        out.putString(student.getFullName());
+        out.putString(student.getEmail());
+        out.putDate(student.getDateOfBirth());
+        out.putString(student.getPhoneNumber());
+        out.putDate(student.getEnrollmentDate());
+        out.putBoolean(student.isActive());
+        out.putDouble(student.getCurrentGPA());
+        writeIds(out, student.getEnrolledCourseIds());
+    }
+
+    public static Student readStudent(RecordReader in) throws IOException {
+        Student student = new Student(in.getString(), in.getString(), in.getString(), in.getString());
+        student.setDateOfBirth(in.getDate());
+        student.setPhoneNumber(in.getString());
+        student.setEnrollmentDate(in.getDate());
+        student.setActive(in.getBoolean());
+        student.setCurrentGPA(in.getDouble());
+        student.setEnrolledCourseIds(readIds(in));
+        return student;
+    }
+
+    public static void writeInstructor(RecordWriter out, Instructor instructor) throws IOException {
+        out.putString(instructor.getId());
+        out.putString(instructor.getEmployeeId());
+        out.putString(instructor.getFullName());
+        out.putString(instructor.getEmail());
+        out.putString(instructor.getDepartment());
+        out.putDate(instructor.getDateOfBirth());
+        out.putString(instructor.getPhoneNumber());
+        out.putString(instructor.getTitle());
+        out.putDate(instructor.getHireDate());
+        out.putBoolean(instructor.isActive());
+        writeIds(out, instructor.getAssignedCourseIds());
+    }
+
+    public static Instructor readInstructor(RecordReader in) throws IOException {
+        Instructor instructor = new Instructor(in.getString(), in.getString(), in.getString(),
+                                               in.getString(), in.getString());
+        instructor.setDateOfBirth(in.getDate());
+        instructor.setPhoneNumber(in.getString());
+        instructor.setTitle(in.getString());
+        instructor.setHireDate(in.getDate());
+        instructor.setActive(in.getBoolean());
+        instructor.setAssignedCourseIds(readIds(in));
+        return instructor;
+    }
+
+    public static void writeCourse(RecordWriter out, Course course) throws IOException {
+        out.putString(course.getCourseId());
+        out.putString(course.getCourseCode());
+        out.putString(course.getTitle());
+        out.putInt(course.getCreditHours());
+        out.putString(course.getInstructorId());
+        out.putEnum(course.getSemester());
+        out.putEnum(course.getDepartment());
+        out.putBoolean(course.isActive());
+        out.putString(course.getDescription());
+        out.putInt(course.getCapacity());
+    }
+
+    public static Course readCourse(RecordReader in) throws IOException {
+        return readCourse(in, true);
+    }
+
+    /**
+     * Reads a course record.
+     * @param in The reader
+     * @param withCapacity false for records written before courses had a capacity
+     * @return The course
+     * @throws IOException if the record cannot be read
+     */
+    public static Course readCourse(RecordReader in, boolean withCapacity) throws IOException {
+        Course course = new Course(in.getString(), in.getString(), in.getString(), in.getInt(),
+                                   in.getString(), in.getEnum(Semester.values()), in.getEnum(Department.values()));
+        course.setActive(in.getBoolean());
+        course.setDescription(in.getString());
+        if (withCapacity) {
+            course.setCapacity(in.getInt());
+        }
+        return course;
+    }
+
+    public static void writeEnrollment(RecordWriter out, Enrollment enrollment) throws IOException {
+        out.putString(enrollment.getEnrollmentId());
+        out.putString(enrollment.getStudentId());
+        out.putString(enrollment.getCourseId());
+        out.putDate(enrollment.getEnrollmentDate());
+        out.putDate(enrollment.getCompletionDate());
+        out.putDouble(enrollment.getNumericGrade());
+        out.putEnum(enrollment.getLetterGrade());
+        out.putBoolean(enrollment.isCompleted());
+        out.putBoolean(enrollment.isActive());
+    }
+
+    public static Enrollment readEnrollment(RecordReader in) throws IOException {
+        Enrollment enrollment = new Enrollment(in.getString(), in.getString(), in.getString());
+        enrollment.setEnrollmentDate(in.getDate());
+        enrollment.setCompletionDate(in.getDate());
+        enrollment.setNumericGrade(in.getDouble());
+        enrollment.setLetterGrade(in.getEnum(Grade.values()));
+        enrollment.setCompleted(in.getBoolean());
+        enrollment.setActive(in.getBoolean());
+        return enrollment;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, String filePath) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException(filePath + ": truncated snapshot header");
+            }
+        }
+    }
+
+    private static void writeIds(RecordWriter out, List<String> ids) throws IOException {
+        // Copy first: the list may be a student's live list and change while saving
+        String[] copy = ids.toArray(new String[0]);
+        out.putInt(copy.length);
+        for (String id : copy) {
+            out.putString(id);
+        }
+    }
+
+    private static List<String> readIds(RecordReader in) throws IOException {
+        int count = in.getInt();
+        List<String> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(in.getString());
+        }
+        return ids;
+    }
+
+    private static <T> int writeAll(RecordWriter out, Iterator<T> items, RecordEncoder<T> encoder) throws IOException {
+        int count = 0;
+        while (items.hasNext()) {
+            encoder.write(out, items.next());
+            count++;
+        }
+        return count;
+    }
+
+    @FunctionalInterface
+    private interface RecordEncoder<T> {
+        void write(RecordWriter out, T item) throws IOException;
+    }
+}
@@ -0,0 +1,130 @@
+package com.ccrm.core;
+
+import com.ccrm.builders.CourseBuilder;
+import com.ccrm.enums.Department;
+import com.ccrm.enums.Semester;
+import com.ccrm.model.Course;
+import com.ccrm.model.Enrollment;
+import com.ccrm.model.Student;
+import com.ccrm.services.EnrollmentService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A full course must stay full while its enrollments are graded concurrently.
+ */
+class CourseCapacityConcurrencyTest {
+
+    private static final String COURSE_ID = "CAP-101";
+    private static final int CAPACITY = 5;
+    private static final int GRADERS = 4;
+    private static final int ENROLLERS = 4;
+    private static final int APPLICANTS = 20000;
+
+    private final DataStore dataStore = DataStore.getInstance();
+    private final EnrollmentService enrollmentService = new EnrollmentService();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataStore.clearAllData();
+        Course course = new CourseBuilder()
+                .courseId(COURSE_ID)
+                .courseCode("CAP101")
+                .title("Capacity")
+                .creditHours(3)
+                .instructorId("INS-1")
+                .semester(Semester.FALL)
+                .department(Department.COMPUTER_SCIENCE)
+                .capacity(CAPACITY)
+                .build();
+        dataStore.addCourse(course);
+        for (int i = 0; i < CAPACITY; i++) {
+            dataStore.addStudent(student("SEATED-" + i));
+            enrollmentService.enrollStudent("SEATED-" + i, COURSE_ID);
+        }
+        for (int i = 0; i < APPLICANTS; i++) {
+            dataStore.addStudent(student("APPLICANT-" + i));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataStore.clearAllData();
+    }
+
+    @Test
+    void fullCourseStaysFullWhileGradesAreRecorded() throws Exception {
+        CourseEnrollmentCounts counts = dataStore.getCourseEnrollmentCounts(COURSE_ID);
+        assertEquals(CAPACITY, counts.getActive());
+
+        List<Enrollment> seated = dataStore.getEnrollmentsByCourse(COURSE_ID);
+        AtomicBoolean enrolling = new AtomicBoolean(true);
+        AtomicInteger admitted = new AtomicInteger();
+        AtomicInteger maxSeen = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(GRADERS + ENROLLERS);
+        try {
+            List<Future<?>> graders = new ArrayList<>();
+            for (int g = 0; g < GRADERS; g++) {
+                graders.add(executor.submit(() -> {
+                    start.await();
+                    int grade = 0;
+                    while (enrolling.get()) {
+                        dataStore.recordEnrollmentGrade(seated.get(grade % CAPACITY), 50 + grade++ % 50);
+                        maxSeen.accumulateAndGet(counts.getActive(), Math::max);
+                    }
+                    return null;
+                }));
+            }
+            List<Future<?>> enrollers = new ArrayList<>();
+            for (int e = 0; e < ENROLLERS; e++) {
+                int first = e;
+                enrollers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = first; i < APPLICANTS; i += ENROLLERS) {
+                        try {
+                            enrollmentService.enrollStudent("APPLICANT-" + i, COURSE_ID);
+                            admitted.incrementAndGet();
+                        } catch (IllegalStateException full) {
+                            // Expected: the course is full
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> enroller : enrollers) {
+                enroller.get();
+            }
+            enrolling.set(false);
+            for (Future<?> grader : graders) {
+                grader.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(0, admitted.get(), "enrollments admitted into a full course");
+        assertEquals(CAPACITY, counts.getActive());
+        assertTrue(maxSeen.get() <= CAPACITY, "active count reached " + maxSeen.get());
+        long stored = dataStore.getEnrollmentsByCourse(COURSE_ID).stream().filter(Enrollment::isActive).count();
+        assertEquals(CAPACITY, stored);
+    }
+
+    private static Student student(String id) {
+        return new Student(id, "REG-" + id, "Student " + id, id.toLowerCase() + "@example.edu");
+    }
+}
@@ -0,0 +1,79 @@
+package com.ccrm.core;
+
+import com.ccrm.builders.CourseBuilder;
+import com.ccrm.enums.Department;
+import com.ccrm.enums.Semester;
+import com.ccrm.model.Enrollment;
+import com.ccrm.model.Student;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Saving a stored enrollment again after changing it in place must move the
+ * running totals from its old status to its new one.
+ */
+class EnrollmentResaveTest {
+
+    private static final String STUDENT_ID = "RESAVE-1";
+    private static final String COURSE_ID = "RESAVE-101";
+    private static final int CREDIT_HOURS = 4;
+
+    private final DataStore dataStore = DataStore.getInstance();
+
+    @BeforeEach
+    void setUp() {
+        dataStore.clearAllData();
+        dataStore.addStudent(new Student(STUDENT_ID, "REG-1", "Resave Student", "resave@example.edu"));
+        dataStore.addCourse(new CourseBuilder()
+                .courseId(COURSE_ID)
+                .courseCode("RESAVE101")
+                .title("Resave")
+                .creditHours(CREDIT_HOURS)
+                .instructorId("INS-1")
+                .semester(Semester.FALL)
+                .department(Department.COMPUTER_SCIENCE)
+                .build());
+        dataStore.addEnrollment(new Enrollment("E-1", STUDENT_ID, COURSE_ID));
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataStore.clearAllData();
+    }
+
+    @Test
+    void resavingGradedInstanceUpdatesGpaAndCounts() {
+        Enrollment stored = dataStore.getEnrollment("E-1");
+        stored.recordGrade(95);
+        dataStore.addEnrollment(stored);
+
+        assertEquals(4.0, dataStore.calculateStudentGPA(STUDENT_ID));
+        assertEquals(CREDIT_HOURS, dataStore.calculateStudentCredits(STUDENT_ID));
+        CourseEnrollmentCounts counts = dataStore.getCourseEnrollmentCounts(COURSE_ID);
+        assertEquals(1, counts.getCompleted());
+        assertEquals(1, counts.getActive());
+    }
+
+    @Test
+    void resavingWithdrawnInstanceReleasesCreditsAndSeat() {
+        Enrollment stored = dataStore.getEnrollment("E-1");
+        stored.withdraw();
+        dataStore.addEnrollment(stored);
+
+        assertEquals(0, dataStore.calculateStudentCredits(STUDENT_ID));
+        assertFalse(dataStore.isActivelyEnrolled(STUDENT_ID, COURSE_ID));
+        CourseEnrollmentCounts counts = dataStore.getCourseEnrollmentCounts(COURSE_ID);
+        assertEquals(0, counts.getActive());
+        assertEquals(1, counts.getWithdrawn());
+        assertEquals(1, counts.getTotal());
+
+        // Saving the same state again changes nothing
+        dataStore.addEnrollment(stored);
+        assertEquals(0, dataStore.getCourseEnrollmentCounts(COURSE_ID).getActive());
+        assertEquals(1, dataStore.getCourseEnrollmentCounts(COURSE_ID).getWithdrawn());
+    }
+}
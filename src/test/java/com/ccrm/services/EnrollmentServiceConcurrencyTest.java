@@ -0,0 +1,247 @@
+package com.ccrm.services;
+
+import com.ccrm.builders.CourseBuilder;
+import com.ccrm.core.DataStore;
+import com.ccrm.enums.Department;
+import com.ccrm.enums.Semester;
+import com.ccrm.exceptions.EnrollmentNotFoundException;
+import com.ccrm.exceptions.MaxCreditLimitExceededException;
+import com.ccrm.model.Enrollment;
+import com.ccrm.model.Student;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Stress tests for the check-and-enroll sequence: concurrent requests must
+ * neither enroll a student twice in a course nor take them past the credit limit,
+ * and a student's course list must agree with their active enrollments.
+ */
+class EnrollmentServiceConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int COURSES = 12;
+    private static final int CREDIT_HOURS = 3;
+
+    private final DataStore dataStore = DataStore.getInstance();
+    private final EnrollmentService enrollmentService = new EnrollmentService();
+
+    @BeforeEach
+    void setUp() {
+        dataStore.clearAllData();
+        for (int i = 0; i < COURSES; i++) {
+            dataStore.addCourse(new CourseBuilder()
+                    .courseId(courseId(i))
+                    .courseCode("STRESS" + i)
+                    .title("Stress " + i)
+                    .creditHours(CREDIT_HOURS)
+                    .instructorId("INS-1")
+                    .semester(Semester.FALL)
+                    .department(Department.COMPUTER_SCIENCE)
+                    .build());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataStore.clearAllData();
+    }
+
+    @Test
+    void concurrentRequestsNeverEnrollTwice() throws Exception {
+        int students = 500;
+        for (int s = 0; s < students; s++) {
+            dataStore.addStudent(student("DUP-" + s));
+        }
+        AtomicInteger enrolled = new AtomicInteger();
+        // Every thread sends the same requests, so each one is raced THREADS times
+        runConcurrently(THREADS, thread -> () -> {
+            for (int s = 0; s < students; s++) {
+                try {
+                    enrollmentService.enrollStudent("DUP-" + s, courseId(s % COURSES));
+                    enrolled.incrementAndGet();
+                } catch (IllegalStateException alreadyEnrolled) {
+                    // Another thread won this one
+                }
+            }
+            return null;
+        });
+
+        assertEquals(students, enrolled.get());
+        for (int s = 0; s < students; s++) {
+            assertEquals(1, dataStore.getEnrollmentsByStudent("DUP-" + s).size(), "enrollments of DUP-" + s);
+            assertEquals(CREDIT_HOURS, dataStore.calculateStudentCredits("DUP-" + s));
+        }
+    }
+
+    @Test
+    void concurrentRequestsNeverExceedCreditLimit() throws Exception {
+        int students = 200;
+        int maxCredits = DataStore.getMaxCreditsPerSemester();
+        for (int s = 0; s < students; s++) {
+            dataStore.addStudent(student("LOAD-" + s));
+        }
+        // Each thread tries every course for every student, in a different order
+        runConcurrently(THREADS, thread -> () -> {
+            for (int s = 0; s < students; s++) {
+                for (int c = 0; c < COURSES; c++) {
+                    try {
+                        enrollmentService.enrollStudent("LOAD-" + s, courseId((c + thread) % COURSES));
+                    } catch (IllegalStateException | MaxCreditLimitExceededException rejected) {
+                        // Already enrolled or at the limit
+                    }
+                }
+            }
+            return null;
+        });
+
+        for (int s = 0; s < students; s++) {
+            String studentId = "LOAD-" + s;
+            int credits = dataStore.calculateStudentCredits(studentId);
+            assertEquals(maxCredits, credits, "credits of " + studentId);
+            assertEquals(maxCredits / CREDIT_HOURS, dataStore.getEnrollmentsByStudent(studentId).size());
+        }
+    }
+
+    @Test
+    void gradingDoesNotOpenRoomPastCreditLimit() throws Exception {
+        String studentId = "FULL-LOAD";
+        dataStore.addStudent(student(studentId));
+        int seated = DataStore.getMaxCreditsPerSemester() / CREDIT_HOURS;
+        for (int c = 0; c < seated; c++) {
+            enrollmentService.enrollStudent(studentId, courseId(c));
+        }
+        List<Enrollment> graded = dataStore.getEnrollmentsByStudent(studentId);
+
+        AtomicBoolean enrolling = new AtomicBoolean(true);
+        AtomicInteger admitted = new AtomicInteger();
+        int graders = 2;
+        AtomicInteger enrollersLeft = new AtomicInteger(THREADS - graders);
+        runConcurrently(THREADS, thread -> () -> {
+            if (thread < graders) {
+                int grade = 0;
+                while (enrolling.get()) {
+                    dataStore.recordEnrollmentGrade(graded.get(grade % graded.size()), 40 + grade++ % 60);
+                }
+            } else {
+                try {
+                    for (int attempt = 0; attempt < 20000; attempt++) {
+                        try {
+                            enrollmentService.enrollStudent(studentId, courseId(seated + attempt % (COURSES - seated)));
+                            admitted.incrementAndGet();
+                        } catch (MaxCreditLimitExceededException | IllegalStateException rejected) {
+                            // Expected: the student is at the limit
+                        }
+                    }
+                } finally {
+                    if (enrollersLeft.decrementAndGet() == 0) {
+                        enrolling.set(false);
+                    }
+                }
+            }
+            return null;
+        });
+
+        assertEquals(0, admitted.get(), "enrollments admitted past the credit limit");
+        assertEquals(DataStore.getMaxCreditsPerSemester(), dataStore.calculateStudentCredits(studentId));
+        assertEquals(seated, dataStore.getEnrollmentsByStudent(studentId).size());
+    }
+
+    @Test
+    void concurrentEnrollAndUnenrollKeepCourseListInStep() throws Exception {
+        String studentId = "FLIP";
+        String courseId = courseId(0);
+        dataStore.addStudent(student(studentId));
+        Student student = dataStore.getStudent(studentId);
+
+        AtomicBoolean flipping = new AtomicBoolean(true);
+        AtomicInteger mismatches = new AtomicInteger();
+        int checkers = 2;
+        AtomicInteger flippersLeft = new AtomicInteger(THREADS - checkers);
+        runConcurrently(THREADS, thread -> () -> {
+            if (thread < checkers) {
+                // Under the student's stripe every update must be either fully applied or not at all
+                while (flipping.get()) {
+                    synchronized (dataStore.getStudentLock(studentId)) {
+                        if (dataStore.isActivelyEnrolled(studentId, courseId) != student.isEnrolledInCourse(courseId)) {
+                            mismatches.incrementAndGet();
+                        }
+                    }
+                }
+            } else {
+                try {
+                    // Half the remaining threads enroll and half withdraw the same student
+                    for (int round = 0; round < 20000; round++) {
+                        try {
+                            if (thread % 2 == 0) {
+                                enrollmentService.enrollStudent(studentId, courseId);
+                            } else {
+                                enrollmentService.unenrollStudent(studentId, courseId);
+                            }
+                        } catch (IllegalStateException | EnrollmentNotFoundException lostRace) {
+                            // Already enrolled, or already withdrawn
+                        }
+                    }
+                } finally {
+                    if (flippersLeft.decrementAndGet() == 0) {
+                        flipping.set(false);
+                    }
+                }
+            }
+            return null;
+        });
+
+        assertEquals(0, mismatches.get(), "course list out of step with the active enrollment");
+        boolean enrolled = dataStore.isActivelyEnrolled(studentId, courseId);
+        assertEquals(enrolled, student.isEnrolledInCourse(courseId));
+        assertEquals(enrolled ? CREDIT_HOURS : 0, dataStore.calculateStudentCredits(studentId));
+    }
+
+    private interface Worker {
+        Callable<Void> forThread(int thread);
+    }
+
+    private static void runConcurrently(int threads, Worker worker) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                Callable<Void> task = worker.forThread(t);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    private static String courseId(int index) {
+        return "STRESS-" + index;
+    }
+
+    private static Student student(String id) {
+        return new Student(id, "REG-" + id, "Student " + id, id.toLowerCase() + "@example.edu");
+    }
+}